@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.benchmarks;
+
+import com.intuit.karate.FileUtils;
+import com.intuit.karate.Runner;
+import com.intuit.karate.Suite;
+import com.intuit.karate.core.Feature;
+import com.intuit.karate.core.FeatureCall;
+import com.intuit.karate.core.FeatureRuntime;
+import com.intuit.karate.core.ScenarioIterator;
+import com.intuit.karate.core.ScenarioRuntime;
+import com.intuit.karate.resource.MemoryResource;
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * test data and runtime setup shared by the benchmarks
+ *
+ * @author pthomas3
+ */
+public class BenchmarkUtils {
+
+    private BenchmarkUtils() {
+        // only static methods
+    }
+
+    public static String read(String name) {
+        InputStream is = BenchmarkUtils.class.getResourceAsStream(name);
+        if (is == null) {
+            throw new RuntimeException("resource not found: " + name);
+        }
+        return FileUtils.toString(is);
+    }
+
+    public static Feature toFeature(String text) {
+        return Feature.read(new MemoryResource(new File("benchmark.feature"), text));
+    }
+
+    // a ready to use runtime, the scenario steps are not executed
+    public static ScenarioRuntime runtime(String... lines) {
+        StringBuilder sb = new StringBuilder("Feature:\nScenario:\n");
+        for (String line : lines) {
+            sb.append("* ").append(line).append('\n');
+        }
+        Feature feature = toFeature(sb.toString());
+        FeatureRuntime fr = FeatureRuntime.of(new Suite(Runner.builder()), new FeatureCall(feature));
+        ScenarioRuntime sr = new ScenarioIterator(fr).first();
+        sr.beforeRun();
+        return sr;
+    }
+
+    // something like a typical api payload, size is the number of "orders"
+    public static Map<String, Object> orders(int size) {
+        List<Object> orders = new ArrayList(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> order = new LinkedHashMap();
+            order.put("id", i);
+            order.put("status", i % 3 == 0 ? "shipped" : "pending");
+            Map<String, Object> customer = new LinkedHashMap();
+            customer.put("name", "customer " + i);
+            customer.put("email", "customer" + i + "@test.com");
+            customer.put("vip", i % 10 == 0);
+            order.put("customer", customer);
+            List<Object> items = new ArrayList(5);
+            for (int j = 0; j < 5; j++) {
+                Map<String, Object> item = new LinkedHashMap();
+                item.put("sku", "sku-" + i + "-" + j);
+                item.put("quantity", j + 1);
+                item.put("price", 9.99 + j);
+                items.add(item);
+            }
+            order.put("items", items);
+            orders.add(order);
+        }
+        Map<String, Object> map = new LinkedHashMap();
+        map.put("count", size);
+        map.put("orders", orders);
+        return map;
+    }
+
+    public static String ordersXml(int size) {
+        StringBuilder sb = new StringBuilder("<orders>");
+        for (int i = 0; i < size; i++) {
+            sb.append("<order id=\"").append(i).append("\">");
+            sb.append("<status>").append(i % 3 == 0 ? "shipped" : "pending").append("</status>");
+            sb.append("<customer><name>customer ").append(i).append("</name>");
+            sb.append("<email>customer").append(i).append("@test.com</email></customer>");
+            sb.append("<items>");
+            for (int j = 0; j < 5; j++) {
+                sb.append("<item sku=\"sku-").append(i).append('-').append(j).append("\">");
+                sb.append("<quantity>").append(j + 1).append("</quantity>");
+                sb.append("<price>").append(9.99 + j).append("</price></item>");
+            }
+            sb.append("</items></order>");
+        }
+        return sb.append("</orders>").toString();
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.benchmarks;
+
+import com.intuit.karate.FileUtils;
+import com.intuit.karate.JsonUtils;
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * compares two jmh json result files and exits with a non-zero status if
+ * any benchmark got slower than the threshold (percent, default 10)
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.intuit.karate.benchmarks.Compare baseline.json target/benchmarks.json 10
+ * </pre>
+ *
+ * @author pthomas3
+ */
+public class Compare {
+
+    public static final double DEFAULT_THRESHOLD = 10;
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("usage: Compare <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        Map<String, Map<String, Object>> baseline = read(args[0]);
+        Map<String, Map<String, Object>> current = read(args[1]);
+        int regressions = 0;
+        for (Map.Entry<String, Map<String, Object>> entry : current.entrySet()) {
+            Map<String, Object> before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.println(String.format("%-80s (new)", entry.getKey()));
+                continue;
+            }
+            double change = regression(before, entry.getValue());
+            boolean regressed = change > threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.println(String.format("%-80s %+8.2f%%%s", entry.getKey(), change, regressed ? " REGRESSION" : ""));
+        }
+        if (regressions > 0) {
+            System.out.println(regressions + " benchmark(s) slower than baseline by more than " + threshold + "%");
+            System.exit(1);
+        }
+    }
+
+    // positive means worse, throughput is better when higher and the other modes are times
+    protected static double regression(Map<String, Object> before, Map<String, Object> after) {
+        double b = score(before);
+        double a = score(after);
+        if ("thrpt".equals(before.get("mode"))) {
+            return (b - a) * 100 / b;
+        }
+        return (a - b) * 100 / b;
+    }
+
+    private static double score(Map<String, Object> result) {
+        Map<String, Object> metric = (Map) result.get("primaryMetric");
+        return ((Number) metric.get("score")).doubleValue();
+    }
+
+    protected static Map<String, Map<String, Object>> read(String path) {
+        String json = FileUtils.toString(new File(path));
+        List<Map<String, Object>> list = (List) JsonUtils.fromJson(json);
+        Map<String, Map<String, Object>> map = new LinkedHashMap(list.size());
+        for (Map<String, Object> result : list) {
+            String key = (String) result.get("benchmark");
+            Map<String, Object> params = (Map) result.get("params");
+            if (params != null) {
+                key = key + new TreeMap(params);
+            }
+            map.put(key, result);
+        }
+        return map;
+    }
+
+}
@@ -0,0 +1,51 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * runs jmh, writing json results to {@value #RESULT_FILE} unless the
+ * "-rf" / "-rff" options are passed
+ *
+ * @author pthomas3
+ */
+public class Main {
+
+    public static final String RESULT_FILE = "target/benchmarks.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> list = new ArrayList(Arrays.asList(args));
+        if (!list.contains("-rf") && !list.contains("-rff")) {
+            list.add("-rf");
+            list.add("json");
+            list.add("-rff");
+            list.add(RESULT_FILE);
+        }
+        org.openjdk.jmh.Main.main(list.toArray(new String[list.size()]));
+    }
+
+}
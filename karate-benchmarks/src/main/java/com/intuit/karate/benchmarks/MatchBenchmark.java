@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.benchmarks;
+
+import com.intuit.karate.JsonUtils;
+import com.intuit.karate.Match;
+import com.intuit.karate.graal.JsEngine;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ *
+ * @author pthomas3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatchBenchmark {
+
+    @Param({"10", "1000"})
+    int size;
+
+    JsEngine js;
+    Map<String, Object> actual;
+    Object expected;
+    Object contained;
+    List<Object> orders;
+    Object schema;
+
+    @Setup
+    public void setup() {
+        js = JsEngine.global();
+        actual = BenchmarkUtils.orders(size);
+        expected = JsonUtils.deepCopy(actual);
+        orders = (List) actual.get("orders");
+        contained = JsonUtils.deepCopy(orders.get(orders.size() - 1));
+        schema = JsonUtils.fromJson("{ id: '#number', status: '#regex (shipped|pending)', customer: { name: '#string', email: '#string', vip: '#boolean' }, items: '#[5]' }");
+    }
+
+    private static Match.Result check(Match.Result mr) {
+        if (!mr.pass) {
+            throw new RuntimeException(mr.message);
+        }
+        return mr;
+    }
+
+    @Benchmark
+    public Object equals() {
+        return check(Match.execute(js, Match.Type.EQUALS, actual, expected, false));
+    }
+
+    @Benchmark
+    public Object contains() {
+        return check(Match.execute(js, Match.Type.CONTAINS, orders, contained, false));
+    }
+
+    @Benchmark
+    public Object eachEqualsFuzzy() {
+        return check(Match.execute(js, Match.Type.EACH_EQUALS, orders, schema, false));
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.benchmarks;
+
+import com.intuit.karate.core.MockHandler;
+import com.intuit.karate.http.HttpRequestBuilder;
+import com.intuit.karate.http.Response;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * requests per second for one mock shared by all benchmark threads
+ *
+ * @author pthomas3
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class MockHandlerBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Mock {
+
+        @Param({"false", "true"})
+        boolean concurrent;
+
+        MockHandler handler;
+
+        @Setup
+        public void setup() {
+            String text = BenchmarkUtils.read("mock.feature");
+            handler = new MockHandler(BenchmarkUtils.toFeature(text), Collections.singletonMap("concurrent", concurrent));
+        }
+
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        InProcessClient client;
+
+        @Setup
+        public void setup(Mock mock) {
+            client = new InProcessClient(mock.handler);
+        }
+
+    }
+
+    private static Response check(Response response) {
+        if (response.getStatus() != 200) {
+            throw new RuntimeException("unexpected status: " + response.getStatus());
+        }
+        return response;
+    }
+
+    @Benchmark
+    public Object get(Client c) {
+        return check(new HttpRequestBuilder(c.client).url("/cats/1").method("GET").invoke());
+    }
+
+    @Benchmark
+    public Object post(Client c) {
+        return check(new HttpRequestBuilder(c.client).url("/cats").bodyJson("{ name: 'Wild' }").invoke("POST"));
+    }
+
+}
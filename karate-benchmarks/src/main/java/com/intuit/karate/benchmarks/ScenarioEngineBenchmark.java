@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.benchmarks;
+
+import com.intuit.karate.core.Result;
+import com.intuit.karate.core.ScenarioEngine;
+import com.intuit.karate.core.ScenarioRuntime;
+import com.intuit.karate.core.Step;
+import com.intuit.karate.core.StepRuntime;
+import com.intuit.karate.core.Variable;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * expression evaluation and step execution against a single scenario
+ *
+ * @author pthomas3
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScenarioEngineBenchmark {
+
+    ScenarioRuntime sr;
+    ScenarioEngine engine;
+    Step defStep;
+    Step matchStep;
+    Step setStep;
+
+    @Setup
+    public void setup() {
+        sr = BenchmarkUtils.runtime(
+                "def foo = { a: 1, b: [1, 2, 3], c: '#(payload.count)' }",
+                "match payload.orders[*].status contains 'shipped'",
+                "set foo.d = payload.orders[0].customer"
+        );
+        engine = sr.engine;
+        engine.setVariable("payload", BenchmarkUtils.orders(100));
+        List<Step> steps = sr.scenario.getSteps();
+        defStep = steps.get(0);
+        matchStep = steps.get(1);
+        setStep = steps.get(2);
+        for (Step step : steps) {
+            execute(step);
+        }
+    }
+
+    private Object execute(Step step) {
+        Result result = StepRuntime.execute(step, sr.actions);
+        if (result.isFailed()) {
+            throw new RuntimeException(result.getErrorMessage());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public Variable evalJs() {
+        return engine.evalKarateExpression("payload.orders.length + payload.count");
+    }
+
+    @Benchmark
+    public Variable evalJsonPath() {
+        return engine.evalKarateExpression("$payload.orders[?(@.status=='shipped')].id");
+    }
+
+    @Benchmark
+    public Variable evalJsonEmbedded() {
+        return engine.evalKarateExpression("{ id: '#(payload.orders[1].id)', name: '#(payload.orders[1].customer.name)' }");
+    }
+
+    @Benchmark
+    public Object stepDef() {
+        return execute(defStep);
+    }
+
+    @Benchmark
+    public Object stepMatch() {
+        return execute(matchStep);
+    }
+
+    @Benchmark
+    public Object stepSet() {
+        return execute(setStep);
+    }
+
+}
@@ -0,0 +1,16 @@
+Feature: mock used by MockHandlerBenchmark
+
+Background:
+* configure mockConcurrency = concurrent
+* def cats = { '1': { id: 1, name: 'Billie' } }
+
+Scenario: pathMatches('/cats') && methodIs('post')
+* def cat = request
+* set cat.id = 2
+* def response = cat
+
+Scenario: pathMatches('/cats/{id}') && methodIs('get')
+* def response = cats[pathParams.id]
+
+Scenario:
+* def responseStatus = 404
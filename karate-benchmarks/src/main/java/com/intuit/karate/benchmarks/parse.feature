@@ -0,0 +1,70 @@
+@parse
+Feature: a typical feature file used by FeatureParserBenchmark
+
+  Background:
+    * url 'http://localhost:8080'
+    * def auth = call read('auth.feature') { username: 'john', password: 'secret' }
+    * header Authorization = 'Bearer ' + auth.token
+    * configure retry = { count: 3, interval: 1000 }
+
+  Scenario: create and fetch a cat
+    Given path 'cats'
+    And request { name: 'Billie', kittens: [{ name: 'Bob' }, { name: 'Wild' }] }
+    When method post
+    Then status 201
+    And match response == { id: '#number', name: 'Billie', kittens: '#[2]' }
+    * def id = response.id
+
+    Given path 'cats', id
+    When method get
+    Then status 200
+    And match response.kittens[*].name contains only ['Bob', 'Wild']
+
+  Scenario: docstrings and tables
+    * text query =
+      """
+      {
+        cats(first: 10) {
+          name
+          kittens { name }
+        }
+      }
+      """
+    * table cats
+      | name     | age |
+      | 'Billie' | 2   |
+      | 'Bob'    | 1   |
+      | 'Wild'   | 3   |
+    * match cats == '#[3]'
+    * def xml = <cats><cat name="Billie"/><cat name="Bob"/></cats>
+    * match xml/cats/cat[2]/@name == 'Bob'
+
+  @smoke
+  Scenario Outline: search by <field>
+    Given path 'cats', 'search'
+    And param <field> = '<value>'
+    When method get
+    Then status 200
+    And match each response == { id: '#number', name: '#string' }
+
+    Examples:
+      | field | value  |
+      | name  | Billie |
+      | name  | Bob    |
+      | age   | 2      |
+      | color | brown  |
+
+  Scenario: javascript
+    * def fun =
+      """
+      function(list) {
+        var total = 0;
+        for (var i = 0; i < list.length; i++) {
+          total += list[i].price;
+        }
+        return total;
+      }
+      """
+    * def total = fun([{ price: 1 }, { price: 2 }])
+    * match total == 3
+    * eval if (total > 2) karate.log('big order')
@@ -0,0 +1,5 @@
+@ignore
+Feature:
+
+Scenario:
+* def doubled = value * 2
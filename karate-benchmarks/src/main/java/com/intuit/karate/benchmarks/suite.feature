@@ -0,0 +1,20 @@
+Feature: scenarios used by SuiteBenchmark
+
+@setup
+Scenario:
+* def data = karate.repeat(64, function(i){ return { index: i } })
+
+Scenario Outline: order <index>
+* def order = { id: '#(index)', items: [{ sku: 'a', price: 1.5 }, { sku: 'b', price: 2 }] }
+* def prices = karate.map(order.items, function(x){ return x.price })
+* match prices == [1.5, 2]
+* set order.items[1].price = 3
+* match order.items[*].sku contains 'b'
+* match each order.items == { sku: '#string', price: '#number' }
+* def result = call read('suite-called.feature') { value: '#(index)' }
+* match result.doubled == index * 2
+* xml doc = <order><id>#(index)</id></order>
+* match doc/order/id == '#notnull'
+
+Examples:
+| karate.setup().data |
@@ -0,0 +1,178 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * in-memory branch coverage probes, one instance per instrumented method,
+ * registered once into a static registry and hit from the hot path without any
+ * locking or I/O. probes are compiled in only when the build sets the
+ * "karate.coverage" property to true (see karate-meta.properties), otherwise
+ * ENABLED is false and the JIT drops every hit() call
+ *
+ * @author pthomas3
+ */
+public class BranchCoverage {
+
+    private static final Logger logger = LoggerFactory.getLogger(BranchCoverage.class);
+
+    public static final String FILE_NAME = "karate-coverage.json";
+
+    public static final boolean ENABLED;
+
+    private static final Map<String, BranchCoverage> REGISTRY = new ConcurrentHashMap();
+
+    static {
+        Properties props = new Properties();
+        try (InputStream is = BranchCoverage.class.getResourceAsStream("/karate-meta.properties")) {
+            if (is != null) {
+                props.load(is);
+            }
+        } catch (Exception e) {
+            logger.warn("failed to read karate-meta.properties: {}", e.getMessage());
+        }
+        ENABLED = "true".equals(props.getProperty("karate.coverage"));
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(BranchCoverage::flush));
+        }
+    }
+
+    public final String name;
+    private final AtomicLongArray counts;
+
+    private BranchCoverage(String name, int branchCount) {
+        this.name = name;
+        counts = new AtomicLongArray(branchCount);
+    }
+
+    public static BranchCoverage register(String name, int branchCount) {
+        BranchCoverage bc = REGISTRY.computeIfAbsent(name, k -> new BranchCoverage(k, branchCount));
+        if (bc.getBranchCount() != branchCount) {
+            throw new RuntimeException("coverage probe '" + name + "' already registered with "
+                    + bc.getBranchCount() + " branches, not " + branchCount);
+        }
+        return bc;
+    }
+
+    public void hit(int id) {
+        if (ENABLED && id >= 0 && id < counts.length()) {
+            counts.incrementAndGet(id);
+        }
+    }
+
+    public int getBranchCount() {
+        return counts.length();
+    }
+
+    public long getCount(int id) {
+        return counts.get(id);
+    }
+
+    public boolean isTaken(int id) {
+        return counts.get(id) > 0;
+    }
+
+    public boolean isAllTaken() {
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public double getTakenPercentage() {
+        int taken = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            if (counts.get(i) > 0) {
+                taken++;
+            }
+        }
+        return taken * 100.0 / counts.length();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+    }
+
+    public Map<String, Object> toMap() {
+        int count = counts.length();
+        List<Long> hits = new ArrayList(count);
+        List<Integer> notTaken = new ArrayList();
+        for (int i = 0; i < count; i++) {
+            long hit = counts.get(i);
+            hits.add(hit);
+            if (hit == 0) {
+                notTaken.add(i);
+            }
+        }
+        Map<String, Object> map = new LinkedHashMap(4);
+        map.put("branches", count);
+        map.put("percent", getTakenPercentage());
+        map.put("hits", hits);
+        map.put("notTaken", notTaken);
+        return map;
+    }
+
+    public void logResults() {
+        if (isAllTaken()) {
+            logger.info("[coverage] {}: all {} branches taken", name, getBranchCount());
+        } else {
+            logger.info("[coverage] {}: {}% of {} branches taken, not taken: {}",
+                    name, String.format("%.2f", getTakenPercentage()), getBranchCount(), toMap().get("notTaken"));
+        }
+    }
+
+    public static Map<String, Object> snapshot() {
+        Map<String, Object> map = new TreeMap();
+        REGISTRY.forEach((k, v) -> map.put(k, v.toMap()));
+        return map;
+    }
+
+    public static File flush() {
+        File file = new File(FileUtils.getBuildDir() + File.separator + FILE_NAME);
+        try {
+            FileUtils.writeToFile(file, JsonUtils.toJson(snapshot(), true));
+            logger.debug("[coverage] written to: {}", file);
+        } catch (Exception e) {
+            logger.warn("[coverage] failed to write: {} - {}", file, e.getMessage());
+        }
+        return file;
+    }
+
+}
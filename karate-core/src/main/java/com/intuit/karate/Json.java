@@ -31,6 +31,7 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +43,25 @@ public class Json {
 
     private static final Logger logger = LoggerFactory.getLogger(Json.class);
 
+    private static final int PATH_CACHE_SIZE = 1000;
+
+    // compiled paths are immutable, and this avoids the global lock in the json-path LRU cache
+    private static final Map<String, JsonPath> PATH_CACHE = new ConcurrentHashMap();
+
+    private static final JsonPath ROOT = JsonPath.compile("$");
+
+    private static JsonPath compile(String path) {
+        JsonPath compiled = PATH_CACHE.get(path);
+        if (compiled == null) {
+            compiled = JsonPath.compile(path);
+            if (PATH_CACHE.size() >= PATH_CACHE_SIZE) { // paths built on the fly, start over
+                PATH_CACHE.clear();
+            }
+            PATH_CACHE.put(path, compiled);
+        }
+        return compiled;
+    }
+
     private final DocumentContext doc;
     private final boolean array;
     private final String prefix;
@@ -88,7 +108,7 @@ public class Json {
     public <T> List<T> getAll(String prefix, List<String> paths) {
         List<T> res = new ArrayList();
         for(String path : paths) {
-            res.add((T) doc.read(prefix(prefix + path)));
+            res.add((T) doc.read(compile(prefix(prefix + path))));
         }
         return res;
     }
@@ -98,7 +118,7 @@ public class Json {
     }
 
     public <T> T get(String path) {
-        return (T) doc.read(prefix(path));
+        return (T) doc.read(compile(prefix(path)));
     }
 
     public <T> T get(String path, T defaultValue) {
@@ -122,7 +142,7 @@ public class Json {
     }
 
     public <T> T getAs(String path, Class<T> clazz) {
-        return doc.read(prefix(path), clazz);
+        return doc.read(compile(prefix(path)), clazz);
     }
 
     @Override
@@ -139,7 +159,7 @@ public class Json {
     }
 
     public <T> T value() {
-        return doc.read("$");
+        return doc.read(ROOT);
     }
 
     public List asList() {
@@ -173,7 +193,7 @@ public class Json {
     }
 
     public Json remove(String path) {
-        doc.delete(prefix(path));
+        doc.delete(compile(prefix(path)));
         return this;
     }
 
@@ -219,12 +239,12 @@ public class Json {
         if (forArray) {
             int index = arrayIndex(pair.right);
             if (index == -1) {
-                doc.add(arrayKey(path), o);
+                doc.add(compile(arrayKey(path)), o);
             } else {
-                doc.set(path, o);
+                doc.set(compile(path), o);
             }
         } else {
-            doc.put(pair.left, pair.right, o);
+            doc.put(compile(pair.left), pair.right, o);
         }
     }
 
@@ -233,7 +253,7 @@ public class Json {
             path = path.substring(0, path.length() - 2);
         }
         try {
-            Object temp = doc.read(path);
+            Object temp = doc.read(compile(path));
             return temp != null;
         } catch (PathNotFoundException pnfe) {
             return false;
@@ -264,15 +284,15 @@ public class Json {
             }
             if (isArrayPath(pair.left)) {
                 if (isArrayPath(pair.right)) {
-                    doc.set(pair.left, new ArrayList());
+                    doc.set(compile(pair.left), new ArrayList());
                 } else {
                     if (!pathExists(pair.left)) { // a necessary repetition
-                        doc.set(pair.left, new LinkedHashMap());
+                        doc.set(compile(pair.left), new LinkedHashMap());
                     }
-                    doc.put(pair.left, pair.right, array ? new ArrayList() : new LinkedHashMap());
+                    doc.put(compile(pair.left), pair.right, array ? new ArrayList() : new LinkedHashMap());
                 }
             } else {
-                doc.put(pair.left, pair.right, array ? new ArrayList() : new LinkedHashMap());
+                doc.put(compile(pair.left), pair.right, array ? new ArrayList() : new LinkedHashMap());
             }
         }
     }
@@ -23,9 +23,8 @@
  */
 package com.intuit.karate;
 
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
 import org.slf4j.LoggerFactory;
 import org.slf4j.helpers.FormattingTuple;
 import org.slf4j.helpers.MessageFormatter;
@@ -41,8 +40,8 @@ public class Logger {
 
     private final org.slf4j.Logger LOGGER;
 
-    // not static, has to be per thread
-    private final DateFormat dateFormatter = new SimpleDateFormat("HH:mm:ss.SSS");
+    // immutable and thread-safe, a mock-server logger is shared by concurrent requests
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("HH:mm:ss.SSS");
 
     private LogAppender appender = LogAppender.NO_OP;
 
@@ -126,10 +125,7 @@ public class Logger {
     }
 
     private String getFormattedDate() {
-        Date now = new Date();
-        String dateText;
-        dateText = dateFormatter.format(now);
-        return dateText;
+        return DATE_FORMATTER.format(LocalTime.now());
     }
 
     private void formatAndAppend(String format, Object... arguments) {
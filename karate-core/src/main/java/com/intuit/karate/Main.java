@@ -131,6 +131,12 @@ public class Main implements Callable<Void> {
     @Option(names = {"-H", "--hook"}, split = ",", description = "class name of a RuntimeHook (or RuntimeHookFactory) to add")
     List<String> hookFactoryClassNames;
 
+    @Option(names = {"--shard"}, description = "only run one part of the features, for e.g. '2/4' (1-based)")
+    String shard;
+
+    @Option(names = {"--workers"}, description = "fork this many worker processes to run the features and merge the reports (experimental)")
+    int workers;
+
     //==========================================================================
     //
     public void addPath(String path) {
@@ -192,6 +198,36 @@ public class Main implements Callable<Void> {
         this.configDir = configDir;
     }
 
+    // everything that applies to a worker, except the paths, tags, dry-run and output dir
+    // which the coordinator adds after karate.options (if any) has been applied
+    List<String> getWorkerArgs() {
+        List<String> args = new ArrayList();
+        if (name != null) {
+            args.add("-n");
+            args.add(name);
+        }
+        if (env != null) {
+            args.add("-e");
+            args.add(env);
+        }
+        args.add("-w");
+        args.add(workingDir.getAbsolutePath());
+        if (configDir != null) {
+            args.add("-g");
+            args.add(configDir);
+        }
+        args.add("-T");
+        args.add(threads + "");
+        List<String> hooks = new ArrayList();
+        if (hookFactoryClassNames != null) {
+            hooks.addAll(hookFactoryClassNames);
+        }
+        hooks.add(ShardCoordinator.ResultHook.class.getName());
+        args.add("-H");
+        args.add(String.join(",", hooks));
+        return args;
+    }
+
     public static Main parseKarateOptions(String line) {
         String[] args = Command.tokenize(line);
         return CommandLine.populateCommand(new Main(), args);
@@ -330,7 +366,7 @@ public class Main implements Callable<Void> {
             return null;
         }
         if (paths != null) {
-            Results results = Runner
+            Runner.Builder rb = Runner
                     .path(paths).tags(tags).scenarioName(name)
                     .karateEnv(env)
                     .workingDir(workingDir)
@@ -340,9 +376,20 @@ public class Main implements Callable<Void> {
                     .outputHtmlReport(isOutputHtmlReport())
                     .outputCucumberJson(isOutputCucumberJson())
                     .outputJunitXml(isOutputJunitXml())
-                    .dryRun(dryRun)
-                    .hooks(createHooks())
-                    .parallel(threads);
+                    .dryRun(dryRun);
+            if (shard != null) {
+                String[] parts = shard.split("/");
+                if (parts.length != 2) {
+                    throw new RuntimeException("invalid shard, expected index/total for e.g. '2/4': " + shard);
+                }
+                rb.shard(Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+            }
+            Results results;
+            if (workers > 1) { // hooks run in the workers
+                results = new ShardCoordinator(rb, workers, threads, getWorkerArgs()).run();
+            } else {
+                results = rb.hooks(createHooks()).parallel(threads);
+            }
             if (results.getFailCount() > 0) {
                 Exception ke = new KarateException("there are test failures !");
                 StackTraceElement[] newTrace = new StackTraceElement[]{
@@ -442,7 +442,12 @@ public class Match {
     }
 
     public static Result execute(JsEngine js, Type matchType, Object actual, Object expected, boolean matchEachEmptyAllowed) {
+        return execute(js, matchType, actual, expected, matchEachEmptyAllowed, 0);
+    }
+
+    public static Result execute(JsEngine js, Type matchType, Object actual, Object expected, boolean matchEachEmptyAllowed, int parallelThreshold) {
         MatchOperation mo = new MatchOperation(js, matchType, new Value(actual), new Value(expected), matchEachEmptyAllowed);
+        mo.parallelThreshold = parallelThreshold;
         mo.execute();
         if (mo.pass) {
             return PASS;
@@ -0,0 +1,253 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.w3c.dom.Node;
+
+/**
+ * the parsed form of a fuzzy-match marker such as '#string', '##[_ > 1] #number'
+ * or '#? _ > 0', so that the string is taken apart only once and not on every
+ * comparison, which matters for a 'match each' over a large array
+ *
+ * @author pthomas3
+ */
+class MatchMacro {
+
+    static enum Kind {
+        NONE, // nothing to evaluate, e.g. '#' or an un-closed '#['
+        EXPRESSION, // '#(foo)' and '#(^foo)'
+        ARRAY, // '#[]', '#[2] #string', '#[] foo'
+        VALIDATOR // '#string', '#regex ...', '#? _ > 0', '#number? _ > 0'
+    }
+
+    private static final int CACHE_SIZE = 1000;
+
+    // parsing does not depend on the js engine, so this is shared
+    private static final Map<String, MatchMacro> CACHE = Collections.synchronizedMap(new LinkedHashMap<String, MatchMacro>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MatchMacro> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    });
+
+    final String text;
+    final boolean optional;
+    final Kind kind;
+
+    // EXPRESSION, and the schema reference for ARRAY
+    Match.Type nestedType;
+    String expression;
+
+    // ARRAY
+    String sizeExpression;
+    String eachMacro;
+
+    // VALIDATOR
+    String validatorName;
+    Match.Validator validator;
+    String predicate;
+
+    static MatchMacro of(String text) {
+        MatchMacro macro = CACHE.get(text);
+        if (macro == null) {
+            macro = new MatchMacro(text);
+            CACHE.put(text, macro);
+        }
+        return macro;
+    }
+
+    private MatchMacro(String expStr) {
+        text = expStr;
+        optional = expStr.startsWith("##");
+        int minLength = optional ? 3 : 2;
+        if (expStr.length() <= minLength) {
+            kind = Kind.NONE;
+            return;
+        }
+        String macro = expStr.substring(minLength - 1);
+        if (macro.startsWith("(") && macro.endsWith(")")) {
+            kind = Kind.EXPRESSION;
+            macro = macro.substring(1, macro.length() - 1);
+            nestedType = macroToMatchType(false, macro);
+            expression = macro.substring(matchTypeToStartPos(nestedType));
+        } else if (macro.startsWith("[")) {
+            int closeBracketPos = macro.indexOf(']');
+            if (closeBracketPos == -1) {
+                kind = Kind.NONE;
+                return;
+            }
+            kind = Kind.ARRAY;
+            if (closeBracketPos > 1) {
+                String bracketContents = macro.substring(1, closeBracketPos);
+                if (containsPlaceholderUnderscore(bracketContents)) { // #[_ < 5]
+                    sizeExpression = bracketContents;
+                } else { // #[5] | #[$.foo] 
+                    sizeExpression = bracketContents + " == _";
+                }
+            }
+            if (macro.length() > closeBracketPos + 1) {
+                macro = StringUtils.trimToNull(macro.substring(closeBracketPos + 1));
+                if (macro != null) {
+                    if (macro.startsWith("(") && macro.endsWith(")")) {
+                        macro = macro.substring(1, macro.length() - 1); // strip parens
+                    }
+                    if (macro.startsWith("?")) { // #[]? _.length == 3
+                        macro = "#" + macro;
+                    }
+                    if (macro.startsWith("#")) {
+                        eachMacro = macro;
+                    } else { // schema reference
+                        nestedType = macroToMatchType(true, macro); // match each
+                        expression = macro.substring(matchTypeToStartPos(nestedType));
+                    }
+                }
+            }
+        } else { // '#? _ != 0' | '#string' | '#number? _ > 0'
+            kind = Kind.VALIDATOR;
+            int questionPos = macro.indexOf('?');
+            String name;
+            // in case of regex we don't want to remove the '?'
+            if (questionPos != -1 && !macro.startsWith(MatchOperation.REGEX)) {
+                name = macro.substring(0, questionPos);
+                if (macro.length() > questionPos + 1) {
+                    macro = StringUtils.trimToEmpty(macro.substring(questionPos + 1));
+                } else {
+                    macro = "";
+                }
+            } else {
+                name = macro;
+                macro = "";
+            }
+            validatorName = StringUtils.trimToNull(name);
+            if (validatorName != null) {
+                if (validatorName.startsWith(MatchOperation.REGEX)) {
+                    String regex = validatorName.substring(5).trim();
+                    validator = new Match.RegexValidator(regex);
+                } else {
+                    validator = Match.VALIDATORS.get(validatorName);
+                }
+            }
+            macro = StringUtils.trimToNull(macro);
+            if (macro != null && questionPos != -1) {
+                predicate = macro;
+            }
+        }
+    }
+
+    boolean needsJs() {
+        switch (kind) {
+            case EXPRESSION:
+                return true;
+            case ARRAY:
+                return sizeExpression != null || expression != null || (eachMacro != null && of(eachMacro).needsJs());
+            case VALIDATOR:
+                return predicate != null;
+            default:
+                return false;
+        }
+    }
+
+    // true if matching against this expected value could evaluate js, or walk xml
+    static boolean needsJs(Object expected) {
+        if (expected instanceof String) {
+            String s = (String) expected;
+            return s.startsWith("#") && of(s).needsJs();
+        }
+        if (expected instanceof Map) {
+            for (Object value : ((Map) expected).values()) {
+                if (needsJs(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (expected instanceof Collection) {
+            for (Object value : (Collection) expected) {
+                if (needsJs(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return expected instanceof Node;
+    }
+
+    static Match.Type macroToMatchType(boolean each, String macro) {
+        if (macro.startsWith("^^")) {
+            return each ? Match.Type.EACH_CONTAINS_ONLY : Match.Type.CONTAINS_ONLY;
+        } else if (macro.startsWith("^+")) {
+            return each ? Match.Type.EACH_CONTAINS_DEEP : Match.Type.CONTAINS_DEEP;
+        } else if (macro.startsWith("^*")) {
+            return each ? Match.Type.EACH_CONTAINS_ANY : Match.Type.CONTAINS_ANY;
+        } else if (macro.startsWith("^")) {
+            return each ? Match.Type.EACH_CONTAINS : Match.Type.CONTAINS;
+        } else if (macro.startsWith("!^")) {
+            return each ? Match.Type.EACH_NOT_CONTAINS : Match.Type.NOT_CONTAINS;
+        } else if (macro.startsWith("!=")) {
+            return each ? Match.Type.EACH_NOT_EQUALS : Match.Type.NOT_EQUALS;
+        } else {
+            return each ? Match.Type.EACH_EQUALS : Match.Type.EQUALS;
+        }
+    }
+
+    static int matchTypeToStartPos(Match.Type mt) {
+        switch (mt) {
+            case CONTAINS_ONLY:
+            case EACH_CONTAINS_ONLY:
+            case CONTAINS_DEEP:
+            case EACH_CONTAINS_DEEP:
+            case CONTAINS_ANY:
+            case EACH_CONTAINS_ANY:
+            case NOT_CONTAINS:
+            case EACH_NOT_CONTAINS:
+            case NOT_EQUALS:
+            case EACH_NOT_EQUALS:
+                return 2;
+            case CONTAINS:
+            case EACH_CONTAINS:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    private static final Pattern UNDERSCORE_PATTERN = Pattern.compile("\\W_\\W|\\W_|_\\W");
+
+    private static boolean containsPlaceholderUnderscore(String bracketContents) {
+        Matcher m1 = UNDERSCORE_PATTERN.matcher(bracketContents);
+        return m1.find();
+    }
+
+    @Override
+    public String toString() {
+        return kind + ": " + text;
+    }
+
+}
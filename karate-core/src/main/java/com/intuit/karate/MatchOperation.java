@@ -25,19 +25,24 @@ package com.intuit.karate;
 
 import com.intuit.karate.graal.JsEngine;
 import com.intuit.karate.graal.JsValue;
+import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import org.graalvm.polyglot.Value;
+import org.w3c.dom.Node;
 
 /**
  *
@@ -57,6 +62,10 @@ public class MatchOperation {
 
     boolean pass = true;
     private String failReason;
+    // only on the root, see Match.execute()
+    int parallelThreshold;
+    // compiled macro functions, only on the root
+    private final Map<String, Value> functions;
 
     MatchOperation(Match.Type type, Match.Value actual, Match.Value expected, boolean matchEachEmptyAllowed) {
         this(JsEngine.global(), null, type, actual, expected, matchEachEmptyAllowed);
@@ -80,6 +89,7 @@ public class MatchOperation {
                 js = JsEngine.global();
             }
             this.failures = new ArrayList();
+            this.functions = new HashMap();
             if (actual.isXml()) {
                 this.context = new Match.Context(js, this, true, 0, "/", "", -1, matchEachEmptyAllowed);
             } else {
@@ -88,6 +98,7 @@ public class MatchOperation {
         } else {
             this.context = context;
             this.failures = context.root.failures;
+            this.functions = null;
         }        
     }
 
@@ -112,45 +123,6 @@ public class MatchOperation {
         }
     }
 
-    private static Match.Type macroToMatchType(boolean each, String macro) {
-        if (macro.startsWith("^^")) {
-            return each ? Match.Type.EACH_CONTAINS_ONLY : Match.Type.CONTAINS_ONLY;
-        } else if (macro.startsWith("^+")) {
-            return each ? Match.Type.EACH_CONTAINS_DEEP : Match.Type.CONTAINS_DEEP;
-        } else if (macro.startsWith("^*")) {
-            return each ? Match.Type.EACH_CONTAINS_ANY : Match.Type.CONTAINS_ANY;
-        } else if (macro.startsWith("^")) {
-            return each ? Match.Type.EACH_CONTAINS : Match.Type.CONTAINS;
-        } else if (macro.startsWith("!^")) {
-            return each ? Match.Type.EACH_NOT_CONTAINS : Match.Type.NOT_CONTAINS;
-        } else if (macro.startsWith("!=")) {
-            return each ? Match.Type.EACH_NOT_EQUALS : Match.Type.NOT_EQUALS;
-        } else {
-            return each ? Match.Type.EACH_EQUALS : Match.Type.EQUALS;
-        }
-    }
-
-    private static int matchTypeToStartPos(Match.Type mt) {
-        switch (mt) {
-            case CONTAINS_ONLY:
-            case EACH_CONTAINS_ONLY:
-            case CONTAINS_DEEP:
-            case EACH_CONTAINS_DEEP:
-            case CONTAINS_ANY:
-            case EACH_CONTAINS_ANY:
-            case NOT_CONTAINS:
-            case EACH_NOT_CONTAINS:
-            case NOT_EQUALS:
-            case EACH_NOT_EQUALS:
-                return 2;
-            case CONTAINS:
-            case EACH_CONTAINS:
-                return 1;
-            default:
-                return 0;
-        }
-    }
-
     boolean execute() {
         switch (type) {
             case EACH_CONTAINS:
@@ -167,12 +139,24 @@ public class MatchOperation {
                     }
                     Match.Type nestedMatchType = fromMatchEach();                    
                     int count = list.size();
+                    int threshold = context.root.parallelThreshold;
+                    if (threshold > 0 && count >= threshold && eachInParallel(list, nestedMatchType)) {
+                        return true;
+                    }
+                    // also the path that builds the failure report, when the parallel check fails
+                    // only an expected value that evaluates js can refer to _$, this also keeps
+                    // nested array markers such as '#[] #string' off the js engine in parallel workers
+                    boolean bindItem = MatchMacro.needsJs(expected.getValue());
                     for (int i = 0; i < count; i++) {
                         Object o = list.get(i);
-                        context.JS.put("_$", o);
+                        if (bindItem) {
+                            context.JS.put("_$", o);
+                        }
                         MatchOperation mo = new MatchOperation(context.descend(i), nestedMatchType, new Match.Value(o), expected, matchEachEmptyAllowed);
                         mo.execute();
-                        context.JS.bindings.removeMember("_$");
+                        if (bindItem) {
+                            context.JS.bindings.removeMember("_$");
+                        }
                         if (!mo.pass) {
                             return fail("match each failed at index " + i);
                         }
@@ -256,19 +240,33 @@ public class MatchOperation {
         }
     }
 
+    // graal contexts are single-threaded, so this is only for expected values that need no js
+    // and a mismatch returns false, so that the sequential loop builds exactly the same report
+    private boolean eachInParallel(List list, Match.Type nestedMatchType) {
+        if (MatchMacro.needsJs(expected.getValue()) || JsValue.isLazy(list)) {
+            return false;
+        }
+        for (Object o : list) {
+            if (o instanceof Node || JsValue.isLazy(o)) { // dom reads and graal values are not thread-safe
+                return false;
+            }
+        }
+        return IntStream.range(0, list.size()).parallel().allMatch(i -> {
+            MatchOperation mo = new MatchOperation(context.JS, nestedMatchType, new Match.Value(list.get(i)), expected, matchEachEmptyAllowed);
+            mo.execute();
+            return mo.pass;
+        });
+    }
+
     private boolean macroEqualsExpected(String expStr) {
-        boolean optional = expStr.startsWith("##");
+        MatchMacro macro = MatchMacro.of(expStr);
+        boolean optional = macro.optional;
         if (optional && actual.isNull()) { // exit early
             return true;
         }
-        int minLength = optional ? 3 : 2;
-        if (expStr.length() > minLength) {
-            String macro = expStr.substring(minLength - 1);
-            if (macro.startsWith("(") && macro.endsWith(")")) {
-                macro = macro.substring(1, macro.length() - 1);
-                Match.Type nestedType = macroToMatchType(false, macro);
-                int startPos = matchTypeToStartPos(nestedType);
-                macro = macro.substring(startPos);
+        switch (macro.kind) {
+            case EXPRESSION: {
+                Match.Type nestedType = macro.nestedType;
                 if (actual.isList()) { // special case, look for partial maps within list
                     switch (nestedType) {
                         case CONTAINS:
@@ -282,87 +280,37 @@ public class MatchOperation {
                             break;
                     }
                 }
-                context.JS.put("$", context.root.actual.getValue());
-                context.JS.put("_", actual.getValue());
-                JsValue jv = context.JS.eval(macro);
-                context.JS.bindings.removeMember("$");
-                context.JS.bindings.removeMember("_");
+                JsValue jv = evalMacro(macro.expression, actual.getValue());
                 MatchOperation mo = new MatchOperation(context, nestedType, actual, new Match.Value(jv.getValue()), matchEachEmptyAllowed);
                 return mo.execute();
-            } else if (macro.startsWith("[")) {
-                int closeBracketPos = macro.indexOf(']');
-                if (closeBracketPos != -1) { // array, match each
-                    if (!actual.isList()) {
-                        return fail("actual is not an array");
-                    }
-                    if (closeBracketPos > 1) {
-                        String bracketContents = macro.substring(1, closeBracketPos);
-                        List listAct = actual.getValue();
-                        int listSize = listAct.size();
-                        context.JS.put("$", context.root.actual.getValue());
-                        context.JS.put("_", listSize);
-                        String sizeExpr;
-                        if (containsPlaceholderUnderscore(bracketContents)) { // #[_ < 5]
-                            sizeExpr = bracketContents;
-                        } else { // #[5] | #[$.foo] 
-                            sizeExpr = bracketContents + " == _";
-                        }
-                        JsValue jv = context.JS.eval(sizeExpr);
-                        context.JS.bindings.removeMember("$");
-                        context.JS.bindings.removeMember("_");
-                        if (!jv.isTrue()) {
-                            return fail("actual array length is " + listSize);
-                        }
-                    }
-                    if (macro.length() > closeBracketPos + 1) {
-                        macro = StringUtils.trimToNull(macro.substring(closeBracketPos + 1));
-                        if (macro != null) {
-                            if (macro.startsWith("(") && macro.endsWith(")")) {
-                                macro = macro.substring(1, macro.length() - 1); // strip parens
-                            }
-                            if (macro.startsWith("?")) { // #[]? _.length == 3
-                                macro = "#" + macro;
-                            }
-                            if (macro.startsWith("#")) {
-                                MatchOperation mo = new MatchOperation(context, Match.Type.EACH_EQUALS, actual, new Match.Value(macro), matchEachEmptyAllowed);
-                                mo.execute();
-                                return mo.pass ? pass() : fail("all array elements matched");
-                            } else { // schema reference
-                                Match.Type nestedType = macroToMatchType(true, macro); // match each
-                                int startPos = matchTypeToStartPos(nestedType);
-                                macro = macro.substring(startPos);
-                                JsValue jv = context.JS.eval(macro);
-                                MatchOperation mo = new MatchOperation(context, nestedType, actual, new Match.Value(jv.getValue()), matchEachEmptyAllowed);
-                                return mo.execute();
-                            }
-                        }
-                    }
-                    return true; // expression within square brackets is ok
+            }
+            case ARRAY: {
+                if (!actual.isList()) {
+                    return fail("actual is not an array");
                 }
-            } else { // '#? _ != 0' | '#string' | '#number? _ > 0'
-                int questionPos = macro.indexOf('?');
-                String validatorName = null;
-                // in case of regex we don't want to remove the '?'
-                if (questionPos != -1 && !macro.startsWith(REGEX)) {
-                    validatorName = macro.substring(0, questionPos);
-                    if (macro.length() > questionPos + 1) {
-                        macro = StringUtils.trimToEmpty(macro.substring(questionPos + 1));
-                    } else {
-                        macro = "";
+                if (macro.sizeExpression != null) {
+                    List listAct = actual.getValue();
+                    int listSize = listAct.size();
+                    JsValue jv = evalMacro(macro.sizeExpression, listSize);
+                    if (!jv.isTrue()) {
+                        return fail("actual array length is " + listSize);
                     }
-                } else {
-                    validatorName = macro;
-                    macro = "";
                 }
-                validatorName = StringUtils.trimToNull(validatorName);
+                if (macro.eachMacro != null) {
+                    MatchOperation mo = new MatchOperation(context, Match.Type.EACH_EQUALS, actual, new Match.Value(macro.eachMacro), matchEachEmptyAllowed);
+                    mo.execute();
+                    return mo.pass ? pass() : fail("all array elements matched");
+                } else if (macro.expression != null) { // schema reference
+                    JsValue jv = context.JS.eval(macro.expression);
+                    MatchOperation mo = new MatchOperation(context, macro.nestedType, actual, new Match.Value(jv.getValue()), matchEachEmptyAllowed);
+                    return mo.execute();
+                }
+                return true; // expression within square brackets is ok
+            }
+            case VALIDATOR: {
+                String validatorName = macro.validatorName;
                 if (validatorName != null) {
-                    Match.Validator validator = null;
-                    if (validatorName.startsWith(REGEX)) {
-                        String regex = validatorName.substring(5).trim();
-                        validator = new Match.RegexValidator(regex);
-                    } else {
-                        validator = Match.VALIDATORS.get(validatorName);
-                    }
+                    Match.Validator validator = macro.validator;
                     if (validator != null) {
                         if (optional && (actual.isNotPresent() || actual.isNull())) {
                             // pass
@@ -385,32 +333,52 @@ public class MatchOperation {
                                 return actualValue.equals(expStr);
                         }
                     }
-
                 }
-                macro = StringUtils.trimToNull(macro);
-                if (macro != null && questionPos != -1) {
-                    context.JS.put("$", context.root.actual.getValue());
-                    context.JS.put("_", actual.getValue());
-                    JsValue jv = context.JS.eval(macro);
-                    context.JS.bindings.removeMember("$");
-                    context.JS.bindings.removeMember("_");
+                if (macro.predicate != null) {
+                    JsValue jv = evalMacro(macro.predicate, actual.getValue());
                     if (!jv.isTrue()) {
                         return fail("evaluated to 'false'");
                     }
                 }
+                return true;
             }
+            default:
+                return true; // all ok
         }
-        return true; // all ok
     }
-    
-    private static final Pattern UNDERSCORE_PATTERN = Pattern.compile("\\W_\\W|\\W_|_\\W");
 
-    private boolean containsPlaceholderUnderscore(String bracketContents) {
-        Matcher m1 = UNDERSCORE_PATTERN.matcher(bracketContents);
-        while (m1.find()) {
-            return true;
+    // each macro body is compiled once per match into a function that takes
+    // '$' and '_' as arguments, instead of binding them as globals per evaluation
+    private JsValue evalMacro(String body, Object underscore) {
+        Map<String, Value> compiled = context.root.functions;
+        Value function;
+        if (compiled.containsKey(body)) {
+            function = compiled.get(body);
+        } else {
+            function = compileMacro(body);
+            compiled.put(body, function);
+        }
+        Object root = context.root.actual.getValue();
+        if (function == null) { // statements, not an expression
+            context.JS.put("$", root);
+            context.JS.put("_", underscore);
+            JsValue jv = context.JS.eval(body);
+            context.JS.bindings.removeMember("$");
+            context.JS.bindings.removeMember("_");
+            return jv;
+        }
+        return new JsValue(JsEngine.execute(function, root, underscore));
+    }
+
+    private Value compileMacro(String body) {
+        if (body.trim().startsWith("{")) { // would be a block, not an object literal, in eval()
+            return null;
+        }
+        try {
+            return context.JS.evalForValue("(function($, _){ return (" + body + "\n) })");
+        } catch (Exception e) {
+            return null;
         }
-        return false;
     }
 
     private boolean actualEqualsExpected() {
@@ -569,10 +537,15 @@ public class MatchOperation {
                 if ((type == Match.Type.CONTAINS_ONLY || type == Match.Type.CONTAINS_ONLY_DEEP) && expListCount != actListCount) {
                     return fail("actual array length is not equal to expected - " + actListCount + ":" + expListCount);
                 }
+                // for large lists of exact values, only actual items with the same hash are candidates
+                Map<Integer, List<Integer>> actIndex = indexForContains(actList, expList);
                 for (Object exp : expList) { // for each item in the expected list
                     boolean found = false;
                     Match.Value expListValue = new Match.Value(exp);
-                    for (int i = 0; i < actListCount; i++) {
+                    List<Integer> candidates = actIndex == null ? null : actIndex.getOrDefault(exactHash(exp), Collections.emptyList());
+                    int candidateCount = candidates == null ? actListCount : candidates.size();
+                    for (int c = 0; c < candidateCount; c++) {
+                        int i = candidates == null ? c : candidates.get(c);
                         Match.Value actListValue = new Match.Value(actList.get(i));
                         Match.Type childMatchType;
                         switch (type) {
@@ -632,6 +605,101 @@ public class MatchOperation {
         }
     }
 
+    private static final int INDEX_MIN_PAIRS = 256;
+
+    private Map<Integer, List<Integer>> indexForContains(List actList, List expList) {
+        switch (type) {
+            case CONTAINS:
+            case CONTAINS_ONLY:
+            case CONTAINS_ANY:
+            case NOT_CONTAINS:
+                break;
+            default: // the deep variants are not plain equality
+                return null;
+        }
+        if ((long) actList.size() * expList.size() < INDEX_MIN_PAIRS) {
+            return null;
+        }
+        for (Object exp : expList) {
+            if (!isExact(exp)) {
+                return null;
+            }
+        }
+        Map<Integer, List<Integer>> index = new HashMap();
+        int count = actList.size();
+        for (int i = 0; i < count; i++) {
+            index.computeIfAbsent(exactHash(actList.get(i)), k -> new ArrayList(1)).add(i);
+        }
+        return index;
+    }
+
+    // no fuzzy markers or types that need conversion, so a match can only be an equal hash
+    private static boolean isExact(Object o) {
+        if (o == null || o instanceof Number || o instanceof Boolean) {
+            return true;
+        }
+        if (o instanceof String) {
+            return !((String) o).startsWith("#");
+        }
+        if (o instanceof Map) {
+            for (Object value : ((Map) o).values()) {
+                if (!isExact(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (o instanceof Collection) {
+            for (Object value : (Collection) o) {
+                if (!isExact(value)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // consistent with actualEqualsExpected(), values that match will have the same hash
+    private static int exactHash(Object o) {
+        if (o == null) {
+            return 0;
+        }
+        if (o instanceof Number) {
+            double d = ((Number) o).doubleValue();
+            return Double.hashCode(d == 0 ? 0 : d);
+        }
+        if (o instanceof Map) {
+            int hash = 0;
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) o).entrySet()) {
+                hash += Objects.hashCode(entry.getKey()) ^ exactHash(entry.getValue());
+            }
+            return hash;
+        }
+        if (o instanceof Collection) { // sets are matched in iteration order
+            int hash = 1;
+            for (Object value : (Collection) o) {
+                hash = 31 * hash + exactHash(value);
+            }
+            return hash;
+        }
+        if (o instanceof byte[]) {
+            return Arrays.hashCode((byte[]) o);
+        }
+        if (o.getClass().isArray()) {
+            int hash = 1;
+            int length = Array.getLength(o);
+            for (int i = 0; i < length; i++) {
+                hash = 31 * hash + exactHash(Array.get(o, i));
+            }
+            return hash;
+        }
+        if (o instanceof Node) {
+            return 1; // never equal to an exact value
+        }
+        return o.hashCode();
+    }
+
     private static BigDecimal toBigDecimal(Object o) {
         if (o instanceof BigDecimal) {
             return (BigDecimal) o;
@@ -69,22 +69,22 @@ public class Results {
         AtomicInteger time = new AtomicInteger();
         TimelineResults timeline = new TimelineResults();
         TagResults tags = new TagResults();
-        suite.getFeatureResults().forEach(fr -> {
-            if (!fr.isEmpty()) {
-                timeline.addFeatureResult(fr);
-                tags.addFeatureResult(fr);
-                if (fr.isFailed()) {
+        suite.getFeatureSummaries().forEach(fs -> {
+            if (!fs.empty) {
+                timeline.addFeatureSummary(fs);
+                tags.addFeatureSummary(fs);
+                if (fs.failed) {
                     ff.incrementAndGet();
                 } else {
                     fp.incrementAndGet();
                 }
-                Long duration = Math.round(fr.getDurationMillis());
+                Long duration = Math.round(fs.durationMillis);
                 time.addAndGet(duration.intValue());
-                featureSummary.add(fr.toSummaryJson());
+                featureSummary.add(fs.summaryJson);
             }
-            sp.addAndGet(fr.getPassedCount());
-            sf.addAndGet(fr.getFailedCount());
-            errors.addAll(fr.getErrors());
+            sp.addAndGet(fs.passedCount);
+            sf.addAndGet(fs.failedCount);
+            errors.addAll(fs.errors);
         });
         featuresPassed = fp.get();
         featuresFailed = ff.get();
@@ -127,6 +127,18 @@ public class Results {
         System.out.println(String.format("elapsed: %6.2f | threads: %4d | thread time: %.2f ",
                 getElapsedTime() / 1000, suite.threadCount, timeTakenMillis / 1000));
         System.out.println(String.format("features: %5d | skipped: %4d | efficiency: %.2f", getFeaturesTotal(), featuresSkipped, getEfficiency()));
+        if (suite.timings != null) {
+            System.out.println(String.format("predicted: %4.2f | actual: %6.2f (longest first)", suite.predictedMakespan / 1000, getElapsedTime() / 1000));
+        }
+        if (suite.callSingleCache.getMisses() > 0) {
+            System.out.println("callSingle " + suite.callSingleCache);
+        }
+        if (suite.featureCache.getHits() > 0) {
+            System.out.println("called features " + suite.featureCache);
+        }
+        if (suite.readCache.getHits() > 0) {
+            System.out.println("read cache " + suite.readCache);
+        }
         System.out.println(String.format("scenarios: %4d | passed: %5d | failed: %d",
                 getScenariosTotal(), scenariosPassed, scenariosFailed));
         System.out.println("======================================================");
@@ -150,6 +162,23 @@ public class Results {
         map.put("elapsedTime", getElapsedTime());
         map.put("totalTime", getTimeTakenMillis());
         map.put("efficiency", getEfficiency());
+        if (suite.timings != null) {
+            map.put("predictedMakespan", suite.predictedMakespan);
+            map.put("actualMakespan", getElapsedTime());
+        }
+        if (suite.callSingleCache.getMisses() > 0) {
+            map.put("callSingleHits", suite.callSingleCache.getHits());
+            map.put("callSingleMisses", suite.callSingleCache.getMisses());
+            map.put("callSingleWaitTime", suite.callSingleCache.getWaitMillis());
+        }
+        if (suite.featureCache.getHits() > 0) {
+            map.put("featureCacheHits", suite.featureCache.getHits());
+            map.put("featureParseTimeSaved", suite.featureCache.getParseTimeSavedMillis());
+        }
+        if (suite.readCache.getHits() > 0) {
+            map.put("readCacheHits", suite.readCache.getHits());
+            map.put("readCacheMisses", suite.readCache.getMisses());
+        }
         map.put("resultDate", ReportUtils.getDateString());
         map.put("featureSummary", featureSummary);
         return map;
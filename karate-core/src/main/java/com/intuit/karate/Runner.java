@@ -29,6 +29,7 @@ import com.intuit.karate.core.FeatureResult;
 import com.intuit.karate.core.FeatureRuntime;
 import com.intuit.karate.core.RuntimeHookFactory;
 import com.intuit.karate.core.ScenarioCall;
+import com.intuit.karate.core.SingleFlightCache;
 import com.intuit.karate.driver.DriverOptions;
 import com.intuit.karate.driver.DriverRunner;
 import com.intuit.karate.http.HttpClientFactory;
@@ -112,9 +113,14 @@ public class Runner {
         boolean outputCucumberJson;
         boolean dryRun;
         boolean debugMode;
+        boolean scheduleByDuration;
+        boolean virtualThreads;
+        int reportWriterThreads = -1;
+        int shardIndex;
+        int shardTotal;
         Map<String, String> systemProperties;
-        Map<String, Object> callSingleCache;
-        Map<String, ScenarioCall.Result> callOnceCache;
+        SingleFlightCache<Object> callSingleCache;
+        SingleFlightCache<ScenarioCall.Result> callOnceCache;
         SuiteReports suiteReports;
         Map<String, DriverRunner> drivers;
 
@@ -145,6 +151,11 @@ public class Runner {
             b.outputCucumberJson = outputCucumberJson;
             b.dryRun = dryRun;
             b.debugMode = debugMode;
+            b.scheduleByDuration = scheduleByDuration;
+            b.virtualThreads = virtualThreads;
+            b.reportWriterThreads = reportWriterThreads;
+            b.shardIndex = shardIndex;
+            b.shardTotal = shardTotal;
             b.systemProperties = systemProperties;
             b.callSingleCache = callSingleCache;
             b.callOnceCache = callOnceCache;
@@ -248,10 +259,10 @@ public class Runner {
                 features = ResourceUtils.findFeatureFiles(workingDir, paths, scenarioName);
             }
             if (callSingleCache == null) {
-                callSingleCache = new HashMap();
+                callSingleCache = new SingleFlightCache();
             }
             if (callOnceCache == null) {
-                callOnceCache = new HashMap();
+                callOnceCache = new SingleFlightCache();
             }
             if (suiteReports == null) {
                 suiteReports = SuiteReports.DEFAULT;
@@ -458,16 +469,55 @@ public class Runner {
             return (T) this;
         }
 
-        public T callSingleCache(Map<String, Object> value) {
+        // longest first, using the scenario durations of the previous run in the report dir
+        public T scheduleByDuration(boolean value) {
+            scheduleByDuration = value;
+            return (T) this;
+        }
+
+        public T virtualThreads(boolean value) {
+            virtualThreads = value;
+            return (T) this;
+        }
+
+        // zero writes the reports on the threads running the features, the
+        // default is one dedicated writer thread when running in parallel
+        public T reportWriterThreads(int value) {
+            reportWriterThreads = value;
+            return (T) this;
+        }
+
+        // 1-based, for e.g. shard(2, 4) runs the second of four parts
+        public T shard(int index, int total) {
+            if (total < 1 || index < 1 || index > total) {
+                throw new RuntimeException("invalid shard: " + index + " of " + total);
+            }
+            shardIndex = index;
+            shardTotal = total;
+            return (T) this;
+        }
+
+        public T callSingleCache(SingleFlightCache<Object> value) {
             callSingleCache = value;
             return (T) this;
         }
+
+        // a plain map shared across runs still works, prefer sharing one SingleFlightCache
+        public T callSingleCache(Map<String, Object> value) {
+            callSingleCache = value == null ? null : new SingleFlightCache(value);
+            return (T) this;
+        }
         
-        public T callOnceCache(Map<String, ScenarioCall.Result> value) {
+        public T callOnceCache(SingleFlightCache<ScenarioCall.Result> value) {
             callOnceCache = value;
             return (T) this;
         }        
 
+        public T callOnceCache(Map<String, ScenarioCall.Result> value) {
+            callOnceCache = value == null ? null : new SingleFlightCache(value);
+            return (T) this;
+        }
+
         public T suiteReports(SuiteReports value) {
             suiteReports = value;
             return (T) this;
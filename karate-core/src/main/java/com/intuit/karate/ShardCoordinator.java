@@ -0,0 +1,240 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate;
+
+import com.intuit.karate.core.Embed;
+import com.intuit.karate.core.FeatureCall;
+import com.intuit.karate.core.FeatureResult;
+import com.intuit.karate.core.FeatureRuntime;
+import com.intuit.karate.core.ScenarioResult;
+import com.intuit.karate.core.ScenarioTimings;
+import com.intuit.karate.core.StepResult;
+import com.intuit.karate.resource.Resource;
+import com.intuit.karate.shell.Command;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * splits the features across worker processes (forked via the command line
+ * main class), collects each feature result as soon as a worker prints it
+ * to the console, and merges everything into one set of reports
+ *
+ * @author pthomas3
+ */
+public class ShardCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardCoordinator.class);
+
+    public static final String RESULT_PREFIX = "karate-shard-result:";
+
+    private final Runner.Builder rb;
+    private final int workers;
+    private final int threads;
+    private final List<String> workerArgs;
+
+    private Suite suite;
+    private ScenarioTimings timings;
+    private int featuresDone;
+    private int[] featuresFailed;
+
+    public ShardCoordinator(Runner.Builder rb, int workers, int threads, List<String> workerArgs) {
+        this.rb = rb;
+        this.workers = workers;
+        this.threads = threads;
+        this.workerArgs = workerArgs;
+    }
+
+    public static class ResultHook implements RuntimeHook {
+
+        @Override
+        public void afterFeature(FeatureRuntime fr) {
+            // a single line, even for a large feature
+            System.out.println(RESULT_PREFIX + JsonUtils.toJson(fr.result.toKarateJson()));
+        }
+
+    }
+
+    private static String toPath(FeatureCall fc) {
+        Resource resource = fc.feature.getResource();
+        String path = resource.isFile() ? resource.getFile().getAbsolutePath() : resource.getPrefixedPath();
+        return fc.callLine == -1 ? path : path + ":" + fc.callLine;
+    }
+
+    // the system properties and jvm options of this process, so that workers run the same way
+    static List<String> toJvmArgs(List<String> inputArgs) {
+        List<String> list = new ArrayList();
+        for (String arg : inputArgs) {
+            if (arg.startsWith("-agentlib:jdwp") || arg.startsWith("-Xrunjdwp")) {
+                continue; // a debug port can be bound only once
+            }
+            if (arg.startsWith("-Djava.class.path=")) {
+                continue; // passed as -cp
+            }
+            if (arg.startsWith("-D" + Constants.KARATE_OPTIONS + "=")) {
+                continue; // already applied, workers get the resolved paths and tags
+            }
+            list.add(arg);
+        }
+        return list;
+    }
+
+    private Command fork(int index, List<FeatureCall> features) {
+        String outputDir = suite.buildDir + File.separator + "shard-" + index;
+        List<String> args = new ArrayList();
+        args.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        args.addAll(toJvmArgs(ManagementFactory.getRuntimeMXBean().getInputArguments()));
+        args.add("-cp");
+        args.add(System.getProperty("java.class.path"));
+        args.add(Main.class.getName());
+        args.addAll(workerArgs);
+        List<String> tags = rb.tags;
+        if (tags != null) {
+            tags.forEach(tag -> {
+                args.add("-t");
+                args.add(tag);
+            });
+        }
+        if (rb.dryRun) {
+            args.add("-D");
+        }
+        args.add("-o");
+        args.add(outputDir);
+        args.add("-B"); // the report dir of each worker is disposable
+        args.add("false");
+        args.add("-f"); // only the karate-json, reports are rendered after the merge
+        args.add("~html");
+        features.forEach(fc -> args.add(toPath(fc)));
+        // without an appender of its own, the command would not create the worker.log
+        com.intuit.karate.Logger workerLogger = new com.intuit.karate.Logger(ShardCoordinator.class);
+        workerLogger.setAppender(null);
+        Command command = new Command(false, workerLogger, "shard-" + index, outputDir + File.separator + "worker.log",
+                suite.workingDir, args.toArray(new String[args.size()]));
+        // result lines can be large, so they are neither kept in memory nor written to the worker.log
+        command.setHandler(line -> {
+            if (line.startsWith(RESULT_PREFIX)) {
+                onResult(index, line.substring(RESULT_PREFIX.length()));
+                return true;
+            }
+            return false;
+        });
+        command.start();
+        logger.info("started worker {} of {} with {} feature(s), log: {}", index, workers, features.size(), outputDir);
+        return command;
+    }
+
+    private synchronized void onResult(int index, String json) {
+        try {
+            Map<String, Object> map = Json.of(json).asMap();
+            FeatureResult fr = FeatureResult.fromKarateJson(suite.workingDir, map);
+            copyEmbeds(fr);
+            timings.record(fr);
+            suite.saveFeatureResults(fr);
+            featuresDone++;
+            if (fr.isFailed()) {
+                featuresFailed[index - 1]++;
+            }
+            String status = fr.isFailed() ? "fail" : "pass";
+            logger.info("<<{}>> feature {} of {} {}", status, featuresDone, suite.featuresFound, fr.getFeature());
+        } catch (Exception e) {
+            logger.error("failed to merge worker result: {}", e.getMessage());
+        }
+    }
+
+    // embeds are saved in the report dir of the worker
+    private void copyEmbeds(FeatureResult fr) {
+        for (ScenarioResult sr : fr.getScenarioResults()) {
+            for (StepResult step : sr.getStepResults()) {
+                List<Embed> embeds = step.getEmbeds();
+                if (embeds == null) {
+                    continue;
+                }
+                for (Embed embed : embeds) {
+                    File file = embed.getFile();
+                    File dest = new File(suite.reportDir + File.separator + file.getName());
+                    try {
+                        dest.getParentFile().mkdirs();
+                        Files.copy(file.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    } catch (Exception e) {
+                        logger.warn("failed to copy embed: {} - {}", file, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    public Results run() {
+        // executors of the merged suite are never used, the thread
+        // count is for the stats that the results will show
+        suite = new Suite(rb.threads(workers * threads).reportWriterThreads(0));
+        suite.scenarioExecutor.shutdownNow();
+        suite.pendingTasks.shutdownNow();
+        // before the report dir is backed up
+        timings = ScenarioTimings.load(suite.reportDir);
+        if (suite.backupReportDir) {
+            suite.backupReportDirIfExists();
+        }
+        List<List<FeatureCall>> shards = timings.shard(suite.features, workers);
+        featuresFailed = new int[workers];
+        List<Command> commands = new ArrayList(workers);
+        List<Integer> indexes = new ArrayList(workers);
+        for (int i = 0; i < workers; i++) {
+            List<FeatureCall> features = shards.get(i);
+            if (!features.isEmpty()) {
+                commands.add(fork(i + 1, features));
+                indexes.add(i + 1);
+            }
+        }
+        for (Command command : commands) {
+            command.waitSync();
+        }
+        suite.endTime = System.currentTimeMillis();
+        List<String> failedWorkers = new ArrayList();
+        synchronized (this) {
+            for (int i = 0; i < commands.size(); i++) {
+                Command command = commands.get(i);
+                int index = indexes.get(i);
+                // a non-zero exit code is expected only when there are test failures
+                if (command.isFailed() || (command.getExitCode() != 0 && featuresFailed[index - 1] == 0)) {
+                    failedWorkers.add("shard-" + index);
+                }
+            }
+            suite.skippedCount = suite.featuresFound - featuresDone;
+            timings.save(suite.reportDir);
+        }
+        suite.httpConnectionPools.close();
+        Results results = suite.buildResults();
+        if (!failedWorkers.isEmpty()) {
+            throw new RuntimeException("worker process(es) failed: " + failedWorkers + ", see the worker.log in the output dir");
+        }
+        return results;
+    }
+
+}
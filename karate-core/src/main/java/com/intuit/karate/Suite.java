@@ -25,19 +25,31 @@ package com.intuit.karate;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.intuit.karate.core.Config;
+import com.intuit.karate.core.Feature;
+import com.intuit.karate.core.FeatureCache;
 import com.intuit.karate.core.FeatureCall;
 import com.intuit.karate.core.FeatureResult;
 import com.intuit.karate.core.FeatureRuntime;
+import com.intuit.karate.core.FeatureSummary;
+import com.intuit.karate.core.LongestFirstExecutor;
+import com.intuit.karate.core.ReadCache;
 import com.intuit.karate.driver.DriverRunner;
+import com.intuit.karate.graal.JsEngine;
+import com.intuit.karate.report.ReportPipeline;
 import com.intuit.karate.report.ReportUtils;
 import com.intuit.karate.core.Scenario;
 import com.intuit.karate.core.ScenarioCall;
 import com.intuit.karate.core.ScenarioResult;
 import com.intuit.karate.core.ScenarioRuntime;
+import com.intuit.karate.core.ScenarioTimings;
+import com.intuit.karate.core.SingleFlightCache;
 import com.intuit.karate.core.Step;
 import com.intuit.karate.core.SyncExecutorService;
 import com.intuit.karate.core.Tags;
+import com.intuit.karate.core.VirtualThreadExecutor;
 import com.intuit.karate.http.HttpClientFactory;
+import com.intuit.karate.http.HttpConnectionPools;
 import com.intuit.karate.report.SuiteReports;
 import com.intuit.karate.resource.Resource;
 import com.intuit.karate.resource.ResourceUtils;
@@ -45,11 +57,14 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -57,6 +72,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import org.graalvm.polyglot.Source;
 import org.slf4j.LoggerFactory;
 
 import static java.util.function.Predicate.not;
@@ -88,8 +104,10 @@ public class Suite implements Runnable {
     public final List<FeatureCall> features;
     public final List<CompletableFuture> futures;
     public final Set<File> featureResultFiles;
+    private final Map<File, FeatureSummary> featureSummaries = new ConcurrentSkipListMap();
     public final Collection<RuntimeHook> hooks;
     public final HttpClientFactory clientFactory;
+    public final HttpConnectionPools httpConnectionPools = new HttpConnectionPools();
     public final Map<String, String> systemProperties;
 
     public final boolean backupReportDir;
@@ -102,13 +120,21 @@ public class Suite implements Runnable {
     public final boolean parallel;
     public final ExecutorService scenarioExecutor;
     public final ExecutorService pendingTasks;
+    public final ScenarioTimings timings;
+    private final ReportPipeline reportPipeline;
+    protected double predictedMakespan;
 
     public final String karateBase;
     public final String karateConfig;
     public final String karateConfigEnv;
-
-    public final Map<String, Object> callSingleCache;
-    public final Map<String, ScenarioCall.Result> callOnceCache;
+    private final Map<String, Source> configSources = new ConcurrentHashMap();
+    private volatile ScenarioCall.Result suiteConfigSnapshot;
+    private final ThreadLocal<ScenarioCall.Result> threadConfigSnapshot = new ThreadLocal();
+
+    public final SingleFlightCache<Object> callSingleCache;
+    public final SingleFlightCache<ScenarioCall.Result> callOnceCache;
+    public final FeatureCache featureCache = new FeatureCache();
+    public final ReadCache readCache = new ReadCache();
     private final ReentrantLock progressFileLock;
 
     public final Map<String, DriverRunner> drivers;
@@ -167,6 +193,8 @@ public class Suite implements Runnable {
             parallel = false;
             scenarioExecutor = null;
             pendingTasks = null;
+            timings = null;
+            reportPipeline = null;
             callSingleCache = null;
             callOnceCache = null;
             suiteReports = null;
@@ -187,7 +215,14 @@ public class Suite implements Runnable {
             systemProperties = rb.systemProperties;
             tagSelector = Tags.fromKarateOptionsTags(rb.tags);
             hooks = rb.hooks;
-            features = rb.features;
+            List<FeatureCall> resolved = rb.features;
+            if (rb.shardTotal > 1) {
+                // not by duration, every shard has to compute the same split
+                features = ScenarioTimings.empty().shard(resolved, rb.shardTotal).get(rb.shardIndex - 1);
+                logger.info("shard {} of {}, features: {} of {}", rb.shardIndex, rb.shardTotal, features.size(), resolved.size());
+            } else {
+                features = resolved;
+            }
             featuresFound = features.size();
             futures = new ArrayList(featuresFound);
             callSingleCache = rb.callSingleCache;
@@ -208,13 +243,31 @@ public class Suite implements Runnable {
             threadCount = rb.threadCount;
             timeoutMinutes = rb.timeoutMinutes;
             parallel = threadCount > 1;
-            if (parallel) {
-                scenarioExecutor = Executors.newFixedThreadPool(threadCount);
+            boolean virtual = parallel && rb.virtualThreads;
+            if (virtual && !VirtualThreadExecutor.isSupported()) {
+                logger.warn("virtual threads need java 21 or later, using platform threads");
+                virtual = false;
+            }
+            if (parallel && rb.scheduleByDuration) {
+                // before the report dir is backed up
+                timings = ScenarioTimings.load(reportDir);
+                scenarioExecutor = virtual ? new LongestFirstExecutor(threadCount, VirtualThreadExecutor.factory()) : new LongestFirstExecutor(threadCount);
+                pendingTasks = Executors.newSingleThreadExecutor();
+            } else if (parallel) {
+                timings = null;
+                scenarioExecutor = virtual ? new VirtualThreadExecutor(threadCount) : Executors.newFixedThreadPool(threadCount);
                 pendingTasks = Executors.newSingleThreadExecutor();
             } else {
+                timings = null;
                 scenarioExecutor = SyncExecutorService.INSTANCE;
                 pendingTasks = SyncExecutorService.INSTANCE;
             }
+            int writers = rb.reportWriterThreads < 0 ? (parallel ? 1 : 0) : rb.reportWriterThreads;
+            if (writers > 0) {
+                reportPipeline = new ReportPipeline(writers, Math.max(threadCount, writers) * 2, this::writeFeatureResults);
+            } else {
+                reportPipeline = null;
+            }
             progressFileLock = new ReentrantLock();
         }
     }
@@ -226,8 +279,13 @@ public class Suite implements Runnable {
                 backupReportDirIfExists();
             }
             hooks.forEach(h -> h.beforeSuite(this));
+            List<FeatureCall> scheduled = features;
+            if (timings != null) {
+                scheduled = scheduleByDuration();
+            }
+            List<FeatureRuntime> runtimes = new ArrayList(scheduled.size());
             int index = 0;
-            for (FeatureCall feature : features) {
+            for (FeatureCall feature : scheduled) {
                 final int featureNum = ++index;
                 FeatureRuntime fr = FeatureRuntime.of(this, feature);
                 final CompletableFuture future = new CompletableFuture();
@@ -236,7 +294,16 @@ public class Suite implements Runnable {
                     onFeatureDone(fr.result, featureNum);
                     future.complete(Boolean.TRUE);
                 });
-                pendingTasks.submit(fr);
+                runtimes.add(fr);
+            }
+            if (timings == null) {
+                runtimes.forEach(pendingTasks::submit);
+            } else {
+                // queue the scenarios of every feature before any of them runs
+                pendingTasks.submit(() -> {
+                    runtimes.forEach(FeatureRuntime::run);
+                    ((LongestFirstExecutor) scenarioExecutor).start();
+                });
             }
             if (featuresFound > 1) {
                 logger.debug("waiting for {} features to complete", featuresFound);
@@ -248,12 +315,54 @@ public class Suite implements Runnable {
                 CompletableFuture.allOf(futuresArray).join();
             }
             endTime = System.currentTimeMillis();
+            if (timings != null) {
+                timings.save(reportDir);
+            }
         } catch (Throwable t) {
             logger.error("runner failed: " + t);
         } finally {
             scenarioExecutor.shutdownNow();
             pendingTasks.shutdownNow();
+            if (reportPipeline != null) {
+                reportPipeline.close(); // wait for pending reports
+            }
             hooks.forEach(h -> h.afterSuite(this));
+            httpConnectionPools.close();
+        }
+    }
+
+    // features with the longest predicted duration are submitted first, and the
+    // scenario executor picks the longest queued scenario across all features
+    private List<FeatureCall> scheduleByDuration() {
+        Map<FeatureCall, Double> predicted = new HashMap(features.size());
+        features.forEach(fc -> predicted.put(fc, timings.predict(fc.feature)));
+        List<FeatureCall> list = new ArrayList(features);
+        list.sort((a, b) -> Double.compare(predicted.get(b), predicted.get(a)));
+        List<Feature> temp = list.stream().map(fc -> fc.feature).collect(Collectors.toList());
+        predictedMakespan = timings.predictMakespan(temp, threadCount);
+        if (timings.isEmpty()) {
+            logger.info("no scenario timings found in '{}', will schedule in the default order", reportDir);
+        } else {
+            logger.info("scheduled longest first, predicted elapsed time: {} ms", Math.round(predictedMakespan));
+        }
+        return list;
+    }
+
+    public Source getConfigSource(String js, String displayName) {
+        // wrapped in parentheses so that the function is the result of the eval
+        return configSources.computeIfAbsent(displayName, k -> JsEngine.toSource(displayName, "(" + js + ")"));
+    }
+
+    public ScenarioCall.Result getConfigSnapshot() {
+        ScenarioCall.Result snapshot = suiteConfigSnapshot;
+        return snapshot == null ? threadConfigSnapshot.get() : snapshot;
+    }
+
+    public void setConfigSnapshot(ScenarioCall.Result snapshot) {
+        if (Config.CONFIG_CACHE_SUITE.equals(snapshot.config.getConfigCache())) {
+            suiteConfigSnapshot = snapshot;
+        } else {
+            threadConfigSnapshot.set(snapshot);
         }
     }
 
@@ -270,6 +379,8 @@ public class Suite implements Runnable {
         synchronized (featureResultFiles) {
             featureResultFiles.add(file);
         }
+        // replaces the previous one if a scenario was re-tried
+        featureSummaries.put(file, new FeatureSummary(fr));
         if (outputHtmlReport) {
             suiteReports.featureReport(this, fr).render();
         }
@@ -282,17 +393,29 @@ public class Suite implements Runnable {
         fr.printStats();
     }
 
+    private boolean writeFeatureResults(FeatureResult fr) {
+        try { // edge case that reports are not writable     
+            saveFeatureResults(fr);
+            return true;
+        } catch (Throwable t) {
+            logger.error("<<error>> unable to write report file(s): {} - {}", fr.getFeature(), t + "");
+            fr.printStats();
+            return false;
+        }
+    }
+
     private void onFeatureDone(FeatureResult fr, int index) {
         if (fr.getScenarioCount() > 0) { // possible that zero scenarios matched tags
-            try { // edge case that reports are not writable     
-                saveFeatureResults(fr);
-                String status = fr.isFailed() ? "fail" : "pass";
-                logger.info("<<{}>> feature {} of {} ({} remaining) {}", status, index, featuresFound, getFeaturesRemaining() - 1, fr.getFeature());
-            } catch (Throwable t) {
-                logger.error("<<error>> unable to write report file(s): {} - {}", fr.getFeature(), t + "");
-                fr.printStats();
+            if (timings != null) {
+                timings.record(fr);
+            }
+            if (reportPipeline != null) {
+                reportPipeline.submit(fr);
+            } else if (!writeFeatureResults(fr)) {
                 return; // don't attempt to save progress that might fail as well
             }
+            String status = fr.isFailed() ? "fail" : "pass";
+            logger.info("<<{}>> feature {} of {} ({} remaining) {}", status, index, featuresFound, getFeaturesRemaining() - 1, fr.getFeature());
         } else {
             skippedCount++;
             if (logger.isTraceEnabled()) {
@@ -320,6 +443,12 @@ public class Suite implements Runnable {
         }
     }
 
+    // in the same order as getFeatureResults(), but without re-loading anything from disk
+    public Collection<FeatureSummary> getFeatureSummaries() {
+        return featureSummaries.values();
+    }
+
+    // re-loads every feature result from the karate-json files in the report dir
     public Stream<FeatureResult> getFeatureResults() {
         return featureResultFiles.stream()
                 .sorted()
@@ -369,7 +498,7 @@ public class Suite implements Runnable {
         return buildResults();
     }
 
-    private void backupReportDirIfExists() {
+    void backupReportDirIfExists() {
         File file = new File(reportDir);
         if (file.exists()) {
             File dest = new File(reportDir + "_" + System.currentTimeMillis());
@@ -71,16 +71,35 @@ public class XmlUtils {
         return toString(node, false);
     }
 
-    public static String toString(Node node, boolean pretty) {
-        Node nodeToSerialize = node;
-        // In case of pretty string, we clone the node so that we don't modify the original node while trimming whitespaces
-        if (pretty) {
-            nodeToSerialize = node.cloneNode(true);
-            trimWhiteSpace(nodeToSerialize);
+    // the jaxp factory lookups are expensive, and the instances they create are not thread-safe
+    // so each thread re-uses its own, with the namespace-aware variants kept apart
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER = ThreadLocal.withInitial(() -> newDocumentBuilder(false));
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDER_NS = ThreadLocal.withInitial(() -> newDocumentBuilder(true));
+    private static final ThreadLocal<Transformer> TRANSFORMER = ThreadLocal.withInitial(() -> newTransformer(false));
+    private static final ThreadLocal<Transformer> TRANSFORMER_PRETTY = ThreadLocal.withInitial(() -> newTransformer(true));
+    private static final ThreadLocal<XPath> XPATH = ThreadLocal.withInitial(() -> XPathFactory.newInstance().newXPath());
+
+    private static final int XPATH_CACHE_SIZE = 500;
+
+    // compiled expressions are not thread-safe either
+    private static final ThreadLocal<Map<String, XPathExpression>> XPATH_CACHE = ThreadLocal.withInitial(() -> new LinkedHashMap<String, XPathExpression>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+            return size() > XPATH_CACHE_SIZE;
         }
-        DOMSource domSource = new DOMSource(nodeToSerialize);
-        StringWriter writer = new StringWriter();
-        StreamResult result = new StreamResult(writer);
+    });
+
+    private static DocumentBuilder newDocumentBuilder(boolean namespaceAware) {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(namespaceAware);
+        try {
+            return factory.newDocumentBuilder();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Transformer newTransformer(boolean pretty) {
         TransformerFactory tf = TransformerFactory.newInstance();
         try {
             Transformer transformer = tf.newTransformer();
@@ -91,9 +110,28 @@ public class XmlUtils {
             } else {
                 transformer.setOutputProperty(OutputKeys.INDENT, "no");
             }
-            transformer.transform(domSource, result);
+            return transformer;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static String toString(Node node, boolean pretty) {
+        Node nodeToSerialize = node;
+        // In case of pretty string, we clone the node so that we don't modify the original node while trimming whitespaces
+        if (pretty) {
+            nodeToSerialize = node.cloneNode(true);
+            trimWhiteSpace(nodeToSerialize);
+        }
+        DOMSource domSource = new DOMSource(nodeToSerialize);
+        StringWriter writer = new StringWriter();
+        StreamResult result = new StreamResult(writer);
+        ThreadLocal<Transformer> cached = pretty ? TRANSFORMER_PRETTY : TRANSFORMER;
+        try {
+            cached.get().transform(domSource, result);
             return writer.toString();
         } catch (Exception e) {
+            cached.remove(); // in case it is left in a bad state
             throw new RuntimeException(e);
         }
     }
@@ -127,10 +165,9 @@ public class XmlUtils {
     }
 
     public static Document toXmlDoc(String xml, boolean namespaceAware) {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(namespaceAware);
+        DocumentBuilder builder = namespaceAware ? DOCUMENT_BUILDER_NS.get() : DOCUMENT_BUILDER.get();
         try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
+            builder.reset();
             DtdEntityResolver dtdEntityResolver = new DtdEntityResolver();
             builder.setEntityResolver(dtdEntityResolver);
             InputStream is = FileUtils.toInputStream(xml);
@@ -148,13 +185,17 @@ public class XmlUtils {
     }
 
     private static XPathExpression compile(String path) {
-        XPathFactory xPathfactory = XPathFactory.newInstance();
-        XPath xpath = xPathfactory.newXPath();
-        try {
-            return xpath.compile(path);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        Map<String, XPathExpression> cache = XPATH_CACHE.get();
+        XPathExpression expr = cache.get(path);
+        if (expr == null) {
+            try {
+                expr = XPATH.get().compile(path);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            cache.put(path, expr);
         }
+        return expr;
     }
 
     public static NodeList getNodeListByPath(Node node, String path) {
@@ -435,14 +476,7 @@ public class XmlUtils {
     }
 
     public static Document newDocument() {
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        DocumentBuilder builder;
-        try {
-            builder = factory.newDocumentBuilder();
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
-        return builder.newDocument();
+        return DOCUMENT_BUILDER.get().newDocument();
     }
 
     public static void addAttributes(Element element, Map<String, Object> map) {
@@ -40,7 +40,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 
 /**
  * @author pthomas3
@@ -48,12 +48,19 @@ import com.intuit.karate.BranchDataStructure;
 public class Config {
 
     private static final Logger logger = LoggerFactory.getLogger(Config.class);
+    private static final BranchCoverage COVERAGE = BranchCoverage.register("configure", 60);
 
     public static final int DEFAULT_RETRY_INTERVAL = 3000;
     public static final int DEFAULT_RETRY_COUNT = 3;
     public static final int DEFAULT_TIMEOUT = 30000;
     public static final int DEFAULT_HIGHLIGHT_DURATION = 3000;
+    public static final int DEFAULT_HTTP_POOL_MAX_TOTAL = 200;
+    public static final int DEFAULT_HTTP_POOL_MAX_PER_ROUTE = 20;
+    public static final int DEFAULT_HTTP_POOL_IDLE_TIMEOUT = 30000;
     
+    public static final String CONFIG_CACHE_THREAD = "thread";
+    public static final String CONFIG_CACHE_SUITE = "suite";
+
     public static final String DRIVER = "driver";
     public static final String ROBOT = "robot";
     public static final String KAFKA = "kafka";
@@ -125,6 +132,30 @@ public class Config {
     private String ntlmDomain;
     private String ntlmWorkstation;
 
+    // http connection pool
+    private boolean httpPoolEnabled = false;
+    private int httpPoolMaxTotal = DEFAULT_HTTP_POOL_MAX_TOTAL;
+    private int httpPoolMaxPerRoute = DEFAULT_HTTP_POOL_MAX_PER_ROUTE;
+    private int httpPoolIdleTimeout = DEFAULT_HTTP_POOL_IDLE_TIMEOUT;
+
+    // karate-config.js evaluation cache, null (off), "thread" or "suite"
+    private String configCache;
+
+    // mock server handles requests in parallel instead of one at a time
+    private boolean mockConcurrency;
+
+    // js objects and arrays become views converted on access instead of deep copies
+    private boolean lazyJsValues;
+
+    // read() of data files is served from a suite-wide cache of parsed content
+    private boolean readCache;
+
+    // match each over at least this many items is split across threads, 0 is off
+    private int matchParallelThreshold;
+
+    // response bodies bigger than this many bytes are streamed to a temp file, 0 is off
+    private int responseSpillThreshold;
+
     public Config() {
         // zero arg constructor
     }
@@ -135,223 +166,196 @@ public class Config {
     }
 
     public boolean configure(String key, Variable value) { // TODO use enum
-        BranchDataStructure bds = new BranchDataStructure(60, "configure");
 
         key = StringUtils.trimToEmpty(key);
-        bds.setFlag(0);
+        COVERAGE.hit(0);
         switch (key) { // This is branch 0
             case "url": // This is branch 1
-                bds.setFlag(1);
+                COVERAGE.hit(1);
                 url = value.getAsString();
-                bds.saveFlags();
                 return false;
             case "headers": // This is branch 2
-            bds.setFlag(2);
+            COVERAGE.hit(2);
                 headers = value;
-                bds.saveFlags();
                 return false;
             case "cookies": // This is branch 3
-            bds.setFlag(3);
+            COVERAGE.hit(3);
                 if (!value.isNull()) { // This is branch 48
-                    bds.setFlag(48);
+                    COVERAGE.hit(48);
                     value = new Variable(Cookies.normalize(value.getValue()));
                 }
                 cookies = value;
-                bds.saveFlags();
                 return false;
             case "responseHeaders": // This is branch 4
-            bds.setFlag(4);
+            COVERAGE.hit(4);
                 responseHeaders = value;
-                bds.saveFlags();
                 return false;
             case "responseDelay": // This is branch 5
-            bds.setFlag(5);
+            COVERAGE.hit(5);
                 responseDelay = value.isNull() ? 0 : value.getAsInt();
-                bds.saveFlags();
                 return false;
             case "xmlNamespaceAware": // This is branch 6
-            bds.setFlag(6);
+            COVERAGE.hit(6);
                 xmlNamespaceAware = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "lowerCaseResponseHeaders": // This is branch 7
-            bds.setFlag(7);
+            COVERAGE.hit(7);
                 lowerCaseResponseHeaders = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "cors": // This is branch 8
-            bds.setFlag(8);
+            COVERAGE.hit(8);
                 corsEnabled = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "logPrettyResponse": // This is branch 9
-            bds.setFlag(9);
+            COVERAGE.hit(9);
                 logPrettyResponse = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "logPrettyRequest": // This is branch 10
-            bds.setFlag(10);
+            COVERAGE.hit(10);
                 logPrettyRequest = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "printEnabled": // This is branch 11
-            bds.setFlag(11);
+            COVERAGE.hit(11);
                 printEnabled = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "afterScenario": // This is branch 12
-            bds.setFlag(12);
+            COVERAGE.hit(12);
                 afterScenario = value;
-                bds.saveFlags();
                 return false;
             case "afterFeature": // This is branch 13
-            bds.setFlag(13);
+            COVERAGE.hit(13);
                 afterFeature = value;
-                bds.saveFlags();
                 return false;
             case "report": // This is branch 14
-            bds.setFlag(14);
+            COVERAGE.hit(14);
                 if (value.isMap()) { // This is branch 15
-                    bds.setFlag(15);
+                    COVERAGE.hit(15);
                     Map<String, Object> map = value.getValue();
                     showLog = get(map, "showLog", showLog);
                     showAllSteps = get(map, "showAllSteps", showAllSteps);
                 } else if (value.isTrue()) { // This is branch 49
-                    bds.setFlag(49);
+                    COVERAGE.hit(49);
                     showLog = true;
                     showAllSteps = true;
                 } else { // This is branch 50
-                    bds.setFlag(50);
+                    COVERAGE.hit(50);
                     showLog = false;
                     showAllSteps = false;
                 }
-                bds.saveFlags();
                 return false;
             case DRIVER:
             case ROBOT:
             case KAFKA:
             case GRPC:
             case WEBSOCKET: // This is branch 16
-                bds.setFlag(16);
+                COVERAGE.hit(16);
                 customOptions.put(key, value.getValue());
-                bds.saveFlags();
                 return false;
             case "driverTarget": // This is branch 17
-                bds.setFlag(17);
+                COVERAGE.hit(17);
                 if (value.isMap()) { // This is branch 18
-                    bds.setFlag(18);
+                    COVERAGE.hit(18);
                     Map<String, Object> map = value.getValue();
                     if (map.containsKey("docker")) { // This is branch 19
-                        bds.setFlag(19);
+                        COVERAGE.hit(19);
                         // todo add the working dir here
                         driverTarget = new DockerTarget(map);
                     } else { // This is branch 51
-                        bds.setFlag(51);
+                        COVERAGE.hit(51);
                         throw new RuntimeException("bad driverTarget config, expected key 'docker': " + map);
                     }
                 } else { // This is branch 52
-                    bds.setFlag(52);
+                    COVERAGE.hit(52);
                     driverTarget = value.getValue();
                 }
-                bds.saveFlags();
                 return false;
             case "retry": // This is branch 20
-                bds.setFlag(20);
+                COVERAGE.hit(20);
                 if (value.isMap()) { // This is branch 21
-                    bds.setFlag(21);
+                    COVERAGE.hit(21);
                     Map<String, Object> map = value.getValue();
                     retryInterval = get(map, "interval", retryInterval);
                     retryCount = get(map, "count", retryCount);
                 }
-                bds.saveFlags();
                 return false;
             case "pauseIfNotPerf": // This is branch 22
-            bds.setFlag(22);
+            COVERAGE.hit(22);
                 pauseIfNotPerf = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "abortedStepsShouldPass": // This is branch 23
-            bds.setFlag(23);
+            COVERAGE.hit(23);
                 abortedStepsShouldPass = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "abortSuiteOnFailure": // This is branch 24
-            bds.setFlag(24);
+            COVERAGE.hit(24);
                 abortSuiteOnFailure = value.isTrue();
-                bds.saveFlags();
                 return false;
             case "callSingleCache": // This is branch 25
-                bds.setFlag(25);
+                COVERAGE.hit(25);
                 if (value.isMap()) { // This is branch 26
-                    bds.setFlag(26);
+                    COVERAGE.hit(26);
                     Map<String, Object> map = value.getValue();
                     callSingleCacheMinutes = get(map, "minutes", callSingleCacheMinutes);
                     callSingleCacheDir = get(map, "dir", callSingleCacheDir);
                 }
-                bds.saveFlags();
                 return false;
             case "logModifier": // This is branch 27
-                bds.setFlag(27);
+                COVERAGE.hit(27);
                 logModifier = value.getValue();
-                bds.saveFlags();
                 return false;
             case "imageComparison": // This is branch 28
-                bds.setFlag(28);
+                COVERAGE.hit(28);
                 imageComparisonOptions = value.getValue();
-                bds.saveFlags();
                 return false;
             case "matchEachEmptyAllowed": // This is branch 29
-                bds.setFlag(29);
+                COVERAGE.hit(29);
                 matchEachEmptyAllowed = value.getValue();
-                bds.saveFlags();
                 return false;
             case "continueOnStepFailure": // This is branch 30
-                bds.setFlag(30);
+                COVERAGE.hit(30);
                 continueOnStepFailureMethods.clear(); // clears previous configuration - in case someone is trying to chain these and forgets resetting the previous one
                 boolean enableContinueOnStepFailureFeature = false;
                 Boolean continueAfterIgnoredFailure = null;
                 List<String> stepKeywords = null;
                 if (value.isMap()) { // This is branch 31
-                    bds.setFlag(31);
+                    COVERAGE.hit(31);
                     Map<String, Object> map = value.getValue();
                     stepKeywords = (List<String>) map.get("keywords");
                     continueAfterIgnoredFailure = (Boolean) map.get("continueAfter");
                     enableContinueOnStepFailureFeature = map.get("enabled") != null && (Boolean) map.get("enabled");
                 }
                 if (value.isTrue() || enableContinueOnStepFailureFeature) { // This is branch 32
-                    bds.setFlag(32);
+                    COVERAGE.hit(32);
                     continueOnStepFailureMethods.addAll(stepKeywords == null ? StepRuntime.METHOD_MATCH : StepRuntime.findMethodsByKeywords(stepKeywords));
                 } else { // This is branch 53
-                    bds.setFlag(53);
+                    COVERAGE.hit(53);
                     if (stepKeywords == null) { // This is branch 33
-                        bds.setFlag(33);
+                        COVERAGE.hit(33);
                         continueOnStepFailureMethods.clear();
                     } else { // This is branch 54
-                        bds.setFlag(54);
+                        COVERAGE.hit(54);
                         continueOnStepFailureMethods.removeAll(StepRuntime.findMethodsByKeywords(stepKeywords));
                     }
                 }
                 if (continueAfterIgnoredFailure != null) { // This is branch 34
-                    bds.setFlag(34);
+                    COVERAGE.hit(34);
                     continueAfterContinueOnStepFailure = continueAfterIgnoredFailure;
                 }
-                bds.saveFlags();
                 return false;
             // here on the http client has to be re-constructed ================
             // and we return true instead of false
             case "charset": // This is branch 35
-                bds.setFlag(35);
+                COVERAGE.hit(35);
                 charset = value.isNull() ? null : Charset.forName(value.getAsString());
-                bds.saveFlags();
                 return true;
             case "ssl": // This is branch 36
-                bds.setFlag(36);
+                COVERAGE.hit(36);
                 if (value.isString()) { // This is branch 37
-                    bds.setFlag(37);
+                    COVERAGE.hit(37);
                     sslEnabled = true;
                     sslAlgorithm = value.getAsString();
                 } else if (value.isMap()) { // This is branch 55
-                bds.setFlag(55);
+                COVERAGE.hit(55);
                     sslEnabled = true;
                     Map<String, Object> map = value.getValue();
                     sslKeyStore = (String) map.get("keyStore");
@@ -362,61 +366,55 @@ public class Config {
                     sslTrustStoreType = (String) map.get("trustStoreType");
                     Boolean trustAll = (Boolean) map.get("trustAll");
                     if (trustAll != null) { // This is branch 38
-                        bds.setFlag(38);
+                        COVERAGE.hit(38);
                         sslTrustAll = trustAll;
                     }
                     sslAlgorithm = (String) map.get("algorithm");
                 } else { // This is branch 56
-                    bds.setFlag(56);
+                    COVERAGE.hit(56);
                     sslEnabled = value.isTrue();
                 }
-                bds.saveFlags();
                 return true;
             case "followRedirects": // This is branch 39
-                bds.setFlag(39);
+                COVERAGE.hit(39);
                 followRedirects = value.isTrue();
-                bds.saveFlags();
                 return true;
             case "connectTimeout": // This is branch 40
-                bds.setFlag(40);
+                COVERAGE.hit(40);
                 connectTimeout = value.getAsInt();
-                bds.saveFlags();
                 return true;
             case "readTimeout": // This is branch 41
-                bds.setFlag(41);
+                COVERAGE.hit(41);
                 readTimeout = value.getAsInt();
-                bds.saveFlags();
                 return true;
             case "proxy": // This is branch 42
-                bds.setFlag(42);
+                COVERAGE.hit(42);
                 if (value.isNull()) { // This is branch 43
-                    bds.setFlag(43);
+                    COVERAGE.hit(43);
                     proxyUri = null;
                 } else if (value.isString()) { // This is branch 57
-                bds.setFlag(57);
+                COVERAGE.hit(57);
                     proxyUri = value.getAsString();
                 } else { // This is branch 58
-                    bds.setFlag(58);
+                    COVERAGE.hit(58);
                     Map<String, Object> map = value.getValue();
                     proxyUri = (String) map.get("uri");
                     proxyUsername = (String) map.get("username");
                     proxyPassword = (String) map.get("password");
                     nonProxyHosts = (List) map.get("nonProxyHosts");
                 }
-                bds.saveFlags();
                 return true;
             case "localAddress": // This is branch 44
-                bds.setFlag(44);
+                COVERAGE.hit(44);
                 localAddress = value.getAsString();
-                bds.saveFlags();
                 return true;
             case "ntlmAuth": // This is branch 45
-                bds.setFlag(45);
+                COVERAGE.hit(45);
                 if (value.isNull()) { // This is branch 46
-                    bds.setFlag(46);
+                    COVERAGE.hit(46);
                     ntlmEnabled = false;
                 } else { // This is branch 59
-                    bds.setFlag(59);
+                    COVERAGE.hit(59);
                     Map<String, Object> map = value.getValue();
                     ntlmEnabled = true;
                     ntlmUsername = (String) map.get("username");
@@ -424,11 +422,46 @@ public class Config {
                     ntlmDomain = (String) map.get("domain");
                     ntlmWorkstation = (String) map.get("workstation");
                 }
-                bds.saveFlags();
                 return true;
+            case "httpPool":
+                if (value.isMap()) {
+                    httpPoolEnabled = true;
+                    Map<String, Object> map = value.getValue();
+                    httpPoolMaxTotal = get(map, "maxTotal", httpPoolMaxTotal);
+                    httpPoolMaxPerRoute = get(map, "maxPerRoute", httpPoolMaxPerRoute);
+                    httpPoolIdleTimeout = get(map, "idleTimeout", httpPoolIdleTimeout);
+                } else {
+                    httpPoolEnabled = value.isTrue();
+                }
+                return true;
+            case "configCache":
+                if (value.isNull() || value.isBoolean() && !value.isTrue()) {
+                    configCache = null;
+                } else {
+                    String mode = value.getAsString();
+                    if (!CONFIG_CACHE_THREAD.equals(mode) && !CONFIG_CACHE_SUITE.equals(mode)) {
+                        throw new RuntimeException("bad configCache config, expected 'thread' or 'suite': " + mode);
+                    }
+                    configCache = mode;
+                }
+                return false;
+            case "mockConcurrency":
+                mockConcurrency = value.isTrue();
+                return false;
+            case "lazyJsValues":
+                lazyJsValues = value.isTrue();
+                return false;
+            case "readCache":
+                readCache = value.isTrue();
+                return false;
+            case "matchParallelThreshold":
+                matchParallelThreshold = value.isNull() ? 0 : value.getAsInt();
+                return false;
+            case "responseSpillThreshold":
+                responseSpillThreshold = value.isNull() ? 0 : value.getAsInt();
+                return false;
             default: // This is branch 47
-                bds.setFlag(47);
-                bds.saveFlags();
+                COVERAGE.hit(47);
                 throw new RuntimeException("unexpected 'configure' key: '" + key + "'");
         }
     }
@@ -487,6 +520,16 @@ public class Config {
         ntlmPassword = parent.ntlmPassword;
         ntlmDomain = parent.ntlmDomain;
         ntlmWorkstation = parent.ntlmWorkstation;
+        httpPoolEnabled = parent.httpPoolEnabled;
+        httpPoolMaxTotal = parent.httpPoolMaxTotal;
+        httpPoolMaxPerRoute = parent.httpPoolMaxPerRoute;
+        httpPoolIdleTimeout = parent.httpPoolIdleTimeout;
+        configCache = parent.configCache;
+        mockConcurrency = parent.mockConcurrency;
+        lazyJsValues = parent.lazyJsValues;
+        readCache = parent.readCache;
+        matchParallelThreshold = parent.matchParallelThreshold;
+        responseSpillThreshold = parent.responseSpillThreshold;
     }
 
     public void setUrl(String url) {
@@ -775,4 +818,45 @@ public class Config {
     {
         this.httpRetryEnabled = httpRetryEnabled;
     }
+
+    public boolean isHttpPoolEnabled() {
+        return httpPoolEnabled;
+    }
+
+    public int getHttpPoolMaxTotal() {
+        return httpPoolMaxTotal;
+    }
+
+    public int getHttpPoolMaxPerRoute() {
+        return httpPoolMaxPerRoute;
+    }
+
+    public int getHttpPoolIdleTimeout() {
+        return httpPoolIdleTimeout;
+    }
+
+    public String getConfigCache() {
+        return configCache;
+    }
+
+    public boolean isMockConcurrency() {
+        return mockConcurrency;
+    }
+
+    public boolean isLazyJsValues() {
+        return lazyJsValues;
+    }
+
+    public boolean isReadCache() {
+        return readCache;
+    }
+
+    public int getMatchParallelThreshold() {
+        return matchParallelThreshold;
+    }
+
+    public int getResponseSpillThreshold() {
+        return responseSpillThreshold;
+    }
+
 }
@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import com.intuit.karate.resource.MemoryResource;
+import com.intuit.karate.resource.Resource;
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * parsed features keyed by path, so that a feature called in a loop is not
+ * re-parsed every time. a file on disk is parsed again if it was modified
+ * since, for e.g. when a mock is in watch mode. the cached instances are
+ * shared across calls and threads, so the runtime works on copies wherever it
+ * changes a scenario: outline rows, dynamic scenarios, and scenarios whose
+ * name is evaluated, see ScenarioRuntime
+ *
+ * @author pthomas3
+ */
+public class FeatureCache {
+
+    private final Map<String, Entry> map = new ConcurrentHashMap();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder savedNanos = new LongAdder();
+
+    private static class Entry {
+
+        final Feature feature;
+        final long lastModified;
+        final long parseNanos;
+
+        Entry(Feature feature, long lastModified, long parseNanos) {
+            this.feature = feature;
+            this.lastModified = lastModified;
+            this.parseNanos = parseNanos;
+        }
+
+    }
+
+    private static String toKey(Resource resource) {
+        File file = resource.getFile();
+        return file == null ? resource.getPrefixedPath() : file.getAbsolutePath();
+    }
+
+    public Feature read(Resource resource) {
+        if (resource instanceof MemoryResource) { // no identity to key on
+            return Feature.read(resource);
+        }
+        String key = toKey(resource);
+        File file = resource.getFile();
+        long lastModified = file == null ? 0 : file.lastModified();
+        Entry entry = map.get(key);
+        if (entry != null && entry.lastModified == lastModified) {
+            hits.increment();
+            savedNanos.add(entry.parseNanos);
+            return entry.feature;
+        }
+        // two threads may parse the same feature at the same time, which is harmless
+        long startTime = System.nanoTime();
+        Feature feature = Feature.read(resource);
+        misses.increment();
+        map.put(key, new Entry(feature, lastModified, System.nanoTime() - startTime));
+        return feature;
+    }
+
+    public void invalidate(File file) {
+        map.remove(file.getAbsolutePath());
+    }
+
+    public void clear() {
+        map.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public double getParseTimeSavedMillis() {
+        return savedNanos.sum() / 1000000d;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits: %d, misses: %d, parse time saved: %.2f ms", getHits(), getMisses(), getParseTimeSavedMillis());
+    }
+
+}
@@ -30,7 +30,6 @@ import com.intuit.karate.http.HttpClientFactory;
 import com.intuit.karate.resource.MemoryResource;
 import com.intuit.karate.resource.Resource;
 import java.io.File;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -55,12 +54,13 @@ public class FeatureRuntime implements Runnable {
 
     protected ScenarioResult setupResult;
 
-    private ScenarioEngine mockEngine;
+    // per thread, a mock-server can handle requests concurrently
+    private final ThreadLocal<ScenarioEngine> mockEngine = new ThreadLocal();
 
     private final ParallelProcessor<ScenarioRuntime> processor;
 
-    public final Map<String, ScenarioCall.Result> CALLONCE_CACHE = new HashMap();
-    public final Map<String, Map<String, Object>> SETUPONCE_CACHE = new HashMap();
+    public final SingleFlightCache<ScenarioCall.Result> CALLONCE_CACHE = new SingleFlightCache();
+    public final SingleFlightCache<Map<String, Object>> SETUPONCE_CACHE = new SingleFlightCache();
 
     private Runnable next;
 
@@ -77,11 +77,15 @@ public class FeatureRuntime implements Runnable {
     }
 
     public void setMockEngine(ScenarioEngine mockEngine) {
-        this.mockEngine = mockEngine;
+        this.mockEngine.set(mockEngine);
     }
 
     public ScenarioEngine getMockEngine() {
-        return mockEngine;
+        return mockEngine.get();
+    }
+
+    public void removeMockEngine() {
+        mockEngine.remove();
     }
 
     public static FeatureRuntime forTempUse(HttpClientFactory hcf) {
@@ -133,7 +137,9 @@ public class FeatureRuntime implements Runnable {
             processor = new ParallelProcessor<ScenarioRuntime>(
                     suite.scenarioExecutor,
                     scenarios,
-                    suite.pendingTasks) {
+                    suite.pendingTasks,
+                    // ordering by duration needs every scenario queued up-front
+                    suite.timings == null ? suite.threadCount * 2 : Integer.MAX_VALUE) {
 
                 @Override
                 public void process(ScenarioRuntime sr) {
@@ -150,6 +156,15 @@ public class FeatureRuntime implements Runnable {
                     return sr.tags.valuesFor("parallel").isAnyOf("false");
                 }
 
+                @Override
+                public double getWeight(ScenarioRuntime sr) {
+                    if (suite.timings == null) {
+                        return 0;
+                    }
+                    // the chain that follows is approximated by the whole feature
+                    return shouldRunSynchronously(sr) ? suite.timings.predict(featureCall.feature) : suite.timings.predict(sr.scenario);
+                }
+
             };
         } else {
             processor = null;
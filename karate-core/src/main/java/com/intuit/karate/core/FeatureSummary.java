@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * the little that the suite-level results and reports need from a feature
+ * result, kept in memory as each feature completes so that the totals,
+ * timeline and tags can be built without re-loading the karate-json files
+ *
+ * @author pthomas3
+ */
+public class FeatureSummary {
+
+    public final boolean empty;
+    public final boolean failed;
+    public final double durationMillis;
+    public final int passedCount;
+    public final int failedCount;
+    public final List<String> errors;
+    public final Map<String, Object> summaryJson;
+    public final List<ScenarioSummary> scenarios;
+
+    public static class ScenarioSummary {
+
+        public final String executorName;
+        public final String label;
+        public final String name;
+        public final long startTime;
+        public final long endTime;
+        public final boolean failed;
+        public final Collection<String> tagKeys;
+
+        ScenarioSummary(ScenarioResult sr) {
+            Scenario s = sr.getScenario();
+            executorName = sr.getExecutorName();
+            label = s.getFeature().getResource().getFileNameWithoutExtension() + s.getRefId();
+            name = s.getName();
+            startTime = sr.getStartTime();
+            endTime = sr.getEndTime();
+            failed = sr.isFailed();
+            tagKeys = s.getTagsEffective().getTagKeys();
+        }
+
+    }
+
+    public FeatureSummary(FeatureResult fr) {
+        empty = fr.isEmpty();
+        failed = fr.isFailed();
+        durationMillis = fr.getDurationMillis();
+        passedCount = fr.getPassedCount();
+        failedCount = fr.getFailedCount();
+        errors = fr.getErrors();
+        summaryJson = fr.toSummaryJson();
+        List<ScenarioResult> list = fr.getScenarioResults();
+        scenarios = new ArrayList(list.size());
+        for (ScenarioResult sr : list) {
+            scenarios.add(new ScenarioSummary(sr));
+        }
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * fixed size thread pool that picks the queued task with the highest weight
+ * (predicted duration) first, tasks of equal weight run in submission order.
+ * nothing runs until start() is called, so that all the work can be queued
+ * and ordered up-front instead of the first few tasks running as they arrive
+ *
+ * @author pthomas3
+ */
+public class LongestFirstExecutor extends ThreadPoolExecutor {
+
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean started;
+
+    public LongestFirstExecutor(int threadCount) {
+        super(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue());
+    }
+
+    public LongestFirstExecutor(int threadCount, ThreadFactory threadFactory) {
+        super(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS, new PriorityBlockingQueue(), threadFactory);
+    }
+
+    public void start() {
+        started = true;
+        prestartAllCoreThreads();
+    }
+
+    public static Runnable weighted(double weight, Runnable runnable) {
+        return new Weighted(weight, runnable);
+    }
+
+    private static class Weighted implements Runnable {
+
+        final double weight;
+        final Runnable runnable;
+
+        Weighted(double weight, Runnable runnable) {
+            this.weight = weight;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public void run() {
+            runnable.run();
+        }
+
+    }
+
+    private class Task<T> extends FutureTask<T> implements Comparable<Task> {
+
+        final double weight;
+        final long order;
+
+        Task(Runnable runnable, T value) {
+            super(runnable, value);
+            weight = runnable instanceof Weighted ? ((Weighted) runnable).weight : 0;
+            order = sequence.getAndIncrement();
+        }
+
+        @Override
+        public int compareTo(Task o) {
+            int result = Double.compare(o.weight, weight);
+            return result == 0 ? Long.compare(order, o.order) : result;
+        }
+
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new Task(runnable, value);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        // everything in the queue has to be comparable
+        Runnable task = command instanceof Task ? command : new Task(command, null);
+        if (started) {
+            super.execute(task);
+        } else {
+            // the core threads are not running yet, so this will wait in the queue
+            getQueue().add(task);
+        }
+    }
+
+}
@@ -26,9 +26,10 @@ package com.intuit.karate.core;
 import com.intuit.karate.ScenarioActions;
 import com.intuit.karate.Suite;
 import com.intuit.karate.StringUtils;
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 import com.intuit.karate.Json;
 import com.intuit.karate.KarateException;
+import com.intuit.karate.LogAppender;
 import com.intuit.karate.graal.JsValue;
 import com.intuit.karate.http.HttpClientFactory;
 import com.intuit.karate.http.HttpUtils;
@@ -36,12 +37,22 @@ import com.intuit.karate.http.Request;
 import com.intuit.karate.http.ResourceType;
 import com.intuit.karate.http.Response;
 import com.intuit.karate.http.ServerHandler;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import org.slf4j.Logger;
@@ -54,6 +65,7 @@ import org.slf4j.LoggerFactory;
 public class MockHandler implements ServerHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(MockHandler.class);
+    private static final BranchCoverage COVERAGE = BranchCoverage.register("handler", 25);
 
     private static final String REQUEST_BYTES = "requestBytes";
     private static final String REQUEST_PARAMS = "requestParams";
@@ -71,8 +83,27 @@ public class MockHandler implements ServerHandler {
     private static final String PATH_PARAMS = "pathParams";
     private static final String BODY_PATH = "bodyPath";
 
+    private static final String LOCK_TAG = "lock";
+    // set per request, and never published to the shared globals when concurrent
+    private static final Set<String> REQUEST_SCOPED = new HashSet(Arrays.asList(
+            ScenarioEngine.REQUEST_URL_BASE, ScenarioEngine.REQUEST_PATH, ScenarioEngine.REQUEST_URI,
+            ScenarioEngine.REQUEST_METHOD, ScenarioEngine.REQUEST_HEADERS, ScenarioEngine.REQUEST,
+            REQUEST_PARAMS, REQUEST_BYTES, REQUEST_PARTS, PATH_PARAMS));
+
+    public static final String ROUTES_PATH = "/__karate/routes";
+
     private final LinkedHashMap<Feature, ScenarioRuntime> scenarioRuntimes = new LinkedHashMap<>(); // feature + holds global config and vars
-    private final Map<String, Variable> globals = new HashMap<>();
+    private final Map<Feature, MockRoutes> featureRoutes = new HashMap<>();
+    // when concurrent, never modified in place, only replaced (copy-on-write), and
+    // the maps and lists in it are read-only, so that every request can share them
+    private volatile Map<String, Variable> globals = new HashMap<>();
+    // scenarios tagged @lock get exclusive access to globals, all others run in parallel
+    private final ReadWriteLock globalsLock = new ReentrantReadWriteLock();
+    // serializes the copy-on-write replacement of globals by requests holding the read lock
+    private final ReentrantLock globalsUpdateLock = new ReentrantLock();
+    // when not concurrent, one request at a time (not a monitor, which would pin a virtual thread)
+    private final ReentrantLock handlerLock = new ReentrantLock();
+    private final boolean concurrent;
     private boolean corsEnabled;
 
     protected static final ThreadLocal<Request> LOCAL_REQUEST = new ThreadLocal<>();
@@ -95,13 +126,43 @@ public class MockHandler implements ServerHandler {
 
     public MockHandler(String prefix, List<Feature> features, Map<String, Object> args) {
         this.prefix = "/".equals(prefix) ? null : prefix;
-        features.forEach(feature -> {
+        boolean allConcurrent = true;
+        for (Feature feature : features) {
             ScenarioRuntime runtime = initRuntime(feature, args);
             corsEnabled = corsEnabled || runtime.engine.getConfig().isCorsEnabled();
+            allConcurrent = allConcurrent && runtime.engine.getConfig().isMockConcurrency();
             globals.putAll(runtime.engine.shallowCloneVariables());
             runtime.logger.info("mock server initialized: {}", feature);
-            scenarioRuntimes.put(feature, runtime);            
+            scenarioRuntimes.put(feature, runtime);
+            MockRoutes routes = new MockRoutes(feature);
+            if (routes.getRoutes().size() < feature.getSections().size()) {
+                COVERAGE.hit(6); // outline, see MockRoutes
+            }
+            featureRoutes.put(feature, routes);
+        }
+        concurrent = allConcurrent;
+        if (concurrent) {
+            globals.replaceAll((k, v) -> freeze(v));
+            globals = Collections.unmodifiableMap(globals);
+            // the scenario log is never collected for a mock, and would be appended to by many threads
+            scenarioRuntimes.values().forEach(runtime -> runtime.logger.setAppender(LogAppender.NO_OP));
+            logger.debug("mock server will handle requests concurrently");
+        }
+    }
+
+    public boolean isConcurrent() {
+        return concurrent;
+    }
+
+    public List<Map<String, Object>> getRoutes() {
+        List<Map<String, Object>> list = new ArrayList();
+        scenarioRuntimes.keySet().forEach(feature -> {
+            Map<String, Object> map = new LinkedHashMap();
+            map.put("feature", feature.toString());
+            map.put("routes", featureRoutes.get(feature).toList());
+            list.add(map);
         });
+        return list;
     }
     
     public Object getVariable(String name) {
@@ -154,129 +215,171 @@ public class MockHandler implements ServerHandler {
     private static final String ALLOWED_METHODS = "GET, HEAD, POST, PUT, DELETE, PATCH";
 
     @Override
-    public synchronized Response handle(Request req) { // note the [synchronized]
-        BranchDataStructure bds = new BranchDataStructure(25, "handler");
-        bds.setFlag(0);
+    public Response handle(Request req) {
+        try {
+            if (concurrent) {
+                return handleRequest(req);
+            }
+            handlerLock.lock();
+            try {
+                return handleRequest(req);
+            } finally {
+                handlerLock.unlock();
+            }
+        } finally {
+            // server threads are pooled, don't keep the engine (and its js context) alive
+            scenarioRuntimes.values().forEach(runtime -> runtime.featureRuntime.removeMockEngine());
+        }
+    }
+
+    private Response handleRequest(Request req) {
+        COVERAGE.hit(0);
         if (corsEnabled && "OPTIONS".equals(req.getMethod())) { // Branch 1
-            bds.setFlag(1);
+            COVERAGE.hit(1);
             Response response = new Response(200);
             response.setHeader("Allow", ALLOWED_METHODS);
             response.setHeader("Access-Control-Allow-Origin", "*");
             response.setHeader("Access-Control-Allow-Methods", ALLOWED_METHODS);
             List<String> requestHeaders = req.getHeaderValues("Access-Control-Request-Headers");
             if (requestHeaders != null) {// Branch 2
-                bds.setFlag(2);
+                COVERAGE.hit(2);
                 response.setHeader("Access-Control-Allow-Headers", requestHeaders);
             }
-            bds.saveFlags();
             return response;
         }
         if (prefix != null && req.getPath().startsWith(prefix)) { // Branch 3
-            bds.setFlag(3);
+            COVERAGE.hit(3);
             req.setPath(req.getPath().substring(prefix.length()));
         }
+        if (ROUTES_PATH.equals(req.getPath()) && "GET".equals(req.getMethod())) {
+            Response response = new Response(200);
+            response.setBody(Json.of(getRoutes()).toStringPretty());
+            response.setContentType(ResourceType.JSON.contentType);
+            return response;
+        }
         // rare case when http-client is active within same jvm
         // snapshot existing thread-local to restore
         ScenarioEngine prevEngine = ScenarioEngine.get();
         for (Map.Entry<Feature, ScenarioRuntime> entry : scenarioRuntimes.entrySet()) { // Branch 4
-            bds.setFlag(4);
+            COVERAGE.hit(4);
             Feature feature = entry.getKey();
             ScenarioRuntime runtime = entry.getValue();
             // important for graal to work properly
             Thread.currentThread().setContextClassLoader(runtime.featureRuntime.suite.classLoader);            
             LOCAL_REQUEST.set(req);
             req.processBody();
-            ScenarioEngine engine = initEngine(runtime, globals, req);
-            for (FeatureSection fs : feature.getSections()) { // Branch 5
-                bds.setFlag(5);
-                if (fs.isOutline()) { // Branch 6
-                    bds.setFlag(6);
-                    runtime.logger.warn("skipping scenario outline - {}:{}", feature, fs.getScenarioOutline().getLine());
-                    break;
-                }
-                Scenario scenario = fs.getScenario();
-                if (isMatchingScenario(scenario, engine)) { // Branch 7
-                    bds.setFlag(7);
+            Map<String, Variable> initial = globals;
+            ScenarioEngine engine = initEngine(runtime, initial, req, concurrent);
+            for (MockRoutes.Route route : featureRoutes.get(feature).find(req.getMethod(), req.getPath())) { // Branch 5
+                COVERAGE.hit(5);
+                Scenario scenario = route.scenario;
+                if (route.indexed ? isMatchingRoute(route, engine, req) : isMatchingScenario(scenario, engine)) { // Branch 7
+                    COVERAGE.hit(7);
                     Map<String, Object> configureHeaders;
                     Variable response, responseStatus, responseHeaders, responseDelay;
                     ScenarioActions actions = new ScenarioActions(engine);
-                    Result result = executeScenarioSteps(feature, runtime, scenario, actions);
-                    engine.mockAfterScenario();
-                    configureHeaders = engine.mockConfigureHeaders();
-                    response = engine.vars.remove(ScenarioEngine.RESPONSE);
-                    responseStatus = engine.vars.remove(ScenarioEngine.RESPONSE_STATUS);
-                    responseHeaders = engine.vars.remove(ScenarioEngine.RESPONSE_HEADERS);
-                    responseDelay = engine.vars.remove(RESPONSE_DELAY);
-                    globals.putAll(engine.shallowCloneVariables());
+                    boolean locking = concurrent && scenario.getTagsEffective().contains(LOCK_TAG);
+                    Lock lock = concurrent ? (locking ? globalsLock.writeLock() : globalsLock.readLock()) : null;
+                    Result result;
+                    if (lock != null) {
+                        lock.lock();
+                    }
+                    try {
+                        if (locking) {
+                            initial = copyGlobalsForWrite(engine, initial);
+                        }
+                        result = executeScenarioSteps(feature, runtime, scenario, actions);
+                        engine.mockAfterScenario();
+                        configureHeaders = engine.mockConfigureHeaders();
+                        response = engine.vars.remove(ScenarioEngine.RESPONSE);
+                        responseStatus = engine.vars.remove(ScenarioEngine.RESPONSE_STATUS);
+                        responseHeaders = engine.vars.remove(ScenarioEngine.RESPONSE_HEADERS);
+                        responseDelay = engine.vars.remove(RESPONSE_DELAY);
+                        if (concurrent) {
+                            updateGlobals(engine, initial);
+                            if (locking) { // configure changes persist like in the non-concurrent mode
+                                runtime.engine.setConfig(engine.getConfig());
+                            }
+                        } else {
+                            globals.putAll(engine.shallowCloneVariables());
+                        }
+                    } finally {
+                        if (lock != null) {
+                            lock.unlock();
+                        }
+                    }
                     Response res = new Response(200);
                     if (result.isFailed()) { // Branch 8
-                        bds.setFlag(8);
+                        COVERAGE.hit(8);
                         response = new Variable(result.getError().getMessage());
                         responseStatus = new Variable(500);
                     } else { // Branch 9
-                        bds.setFlag(9);
+                        COVERAGE.hit(9);
                         if (corsEnabled) { // Branch 10
-                            bds.setFlag(10);
+                            COVERAGE.hit(10);
                             res.setHeader("Access-Control-Allow-Origin", "*");
                         } else { // Implicit branch 19
-                            bds.setFlag(19);
+                            COVERAGE.hit(19);
                         }
                         res.setHeaders(configureHeaders);
                         if (responseHeaders != null && responseHeaders.isMap()) { // Branch 11
-                            bds.setFlag(11);
+                            COVERAGE.hit(11);
                             res.setHeaders(responseHeaders.getValue());
                         } else { // Implicit branch 20
-                            bds.setFlag(20);
+                            COVERAGE.hit(20);
                         }
                         if (responseDelay != null) { // Branch 12
-                            bds.setFlag(12);
+                            COVERAGE.hit(12);
                             res.setDelay(responseDelay.getAsInt());
                         } else { // Implicit branch 21
-                            bds.setFlag(21);
+                            COVERAGE.hit(21);
                         }
                     }
                     if (response != null && !response.isNull()) { // Branch 13
-                        bds.setFlag(13);
+                        COVERAGE.hit(13);
                         res.setBody(response.getAsByteArray());
                         if (res.getContentType() == null) { // Branch 14
-                            bds.setFlag(14);
+                            COVERAGE.hit(14);
                             ResourceType rt = ResourceType.fromObject(response.getValue());
                             if (rt != null) { // Branch 15
-                                bds.setFlag(15);
+                                COVERAGE.hit(15);
                                 res.setContentType(rt.contentType);
                             }
                         }
                     } else { // Implicit branch 22
-                        bds.setFlag(22);
+                        COVERAGE.hit(22);
                     }
                     if (responseStatus != null) { // Branch 16
-                        bds.setFlag(16);
+                        COVERAGE.hit(16);
                         res.setStatus(responseStatus.getAsInt());
                     } else { // Implicit branch 23
-                        bds.setFlag(23);
+                        COVERAGE.hit(23);
                     }
                     if (prevEngine != null) { // Branch 17
-                        bds.setFlag(17);
+                        COVERAGE.hit(17);
                         ScenarioEngine.set(prevEngine);
                     } else { // Implicit branch 24
-                        bds.setFlag(24);
+                        COVERAGE.hit(24);
+                        ScenarioEngine.remove();
                     }
-                    bds.saveFlags();
                     return res;
                 }
             }
         }
         logger.warn("no scenarios matched, returning 404: {}", req); // NOTE: not logging with engine.logger
         if (prevEngine != null) { // Branch 18
-            bds.setFlag(18); 
+            COVERAGE.hit(18); 
             ScenarioEngine.set(prevEngine);
+        } else {
+            ScenarioEngine.remove();
         }
-        bds.saveFlags();
         return new Response(404);
     }
     
-    private static ScenarioEngine initEngine(ScenarioRuntime runtime, Map<String, Variable> globals, Request req) {
-        ScenarioEngine engine = new ScenarioEngine(runtime.engine.getConfig(), runtime, new HashMap(globals), runtime.logger);        
+    private static ScenarioEngine initEngine(ScenarioRuntime runtime, Map<String, Variable> globals, Request req, boolean concurrent) {
+        // when concurrent, a scenario that does a configure should not affect requests in flight
+        Config config = concurrent ? new Config(runtime.engine.getConfig()) : runtime.engine.getConfig();
+        ScenarioEngine engine = new ScenarioEngine(config, runtime, new HashMap(globals), runtime.logger);
         engine.init();
         engine.setVariable(ScenarioEngine.REQUEST_URL_BASE, req.getUrlBase());
         engine.setVariable(ScenarioEngine.REQUEST_PATH, req.getPath());
@@ -296,6 +399,150 @@ public class MockHandler implements ServerHandler {
         return engine;
     }
 
+    // a @lock scenario may change the shared globals in place, so it gets writable
+    // copies of the latest ones, except for any that the matching re-assigned
+    private Map<String, Variable> copyGlobalsForWrite(ScenarioEngine engine, Map<String, Variable> initial) {
+        Map<String, Variable> latest = globals;
+        latest.forEach((k, v) -> {
+            if (engine.vars.get(k) == initial.get(k)) {
+                engine.setVariable(k, v.copy(true));
+            }
+        });
+        return latest;
+    }
+
+    // published globals are read by requests running at the same time, so no lazy js
+    // views, and maps and lists are read-only: a scenario without @lock can't change them
+    private static Variable freeze(Variable v) {
+        Object value = JsValue.detach(v.getValue());
+        if (value instanceof Map || value instanceof List) {
+            return new Variable(freeze(value, Collections.newSetFromMap(new IdentityHashMap())));
+        }
+        return new Variable(value);
+    }
+
+    private static Object freeze(Object o, Set<Object> seen) {
+        if (o instanceof Map && seen.add(o)) {
+            Map<String, Object> map = (Map) o;
+            Map<String, Object> copy = new LinkedHashMap(map.size());
+            map.forEach((k, v) -> copy.put(k, freeze(v, seen)));
+            return new ReadOnlyMap(copy);
+        } else if (o instanceof List && seen.add(o)) {
+            List<Object> list = (List) o;
+            List<Object> copy = new ArrayList(list.size());
+            list.forEach(v -> copy.add(freeze(v, seen)));
+            return new ReadOnlyList(copy);
+        }
+        return o;
+    }
+
+    // not an UnsupportedOperationException, which graal turns into a js write that is silently ignored
+    private static KarateException readOnly() {
+        return new KarateException("shared mock variables can only be changed in place by a @lock scenario, use 'copy' to change a local copy");
+    }
+
+    private static class ReadOnlyMap extends AbstractMap<String, Object> {
+
+        private final Map<String, Object> map;
+
+        ReadOnlyMap(Map<String, Object> map) {
+            this.map = map;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return Collections.unmodifiableMap(map).entrySet();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return map.containsKey(key);
+        }
+
+        @Override
+        public Object get(Object key) {
+            return map.get(key);
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object remove(Object key) {
+            throw readOnly();
+        }
+
+        @Override
+        public void clear() {
+            throw readOnly();
+        }
+
+    }
+
+    private static class ReadOnlyList extends AbstractList<Object> {
+
+        private final List<Object> list;
+
+        ReadOnlyList(List<Object> list) {
+            this.list = list;
+        }
+
+        @Override
+        public Object get(int index) {
+            return list.get(index);
+        }
+
+        @Override
+        public int size() {
+            return list.size();
+        }
+
+        @Override
+        public Object set(int index, Object element) {
+            throw readOnly();
+        }
+
+        @Override
+        public void add(int index, Object element) {
+            throw readOnly();
+        }
+
+        @Override
+        public Object remove(int index) {
+            throw readOnly();
+        }
+
+    }
+
+    // only variables the scenario added or re-assigned, so that stale copies held by
+    // a scenario running in parallel don't overwrite changes made in the meantime
+    private void updateGlobals(ScenarioEngine engine, Map<String, Variable> initial) {
+        Map<String, Variable> changed = new HashMap();
+        engine.vars.forEach((k, v) -> {
+            if (initial.get(k) != v && !REQUEST_SCOPED.contains(k)) {
+                changed.put(k, freeze(v));
+            }
+        });
+        if (changed.isEmpty()) {
+            return;
+        }
+        globalsUpdateLock.lock();
+        try {
+            Map<String, Variable> temp = new HashMap(globals);
+            temp.putAll(changed);
+            globals = Collections.unmodifiableMap(temp);
+        } finally {
+            globalsUpdateLock.unlock();
+        }
+    }
+
     private Result executeScenarioSteps(Feature feature, ScenarioRuntime runtime, Scenario scenario, ScenarioActions actions) {
         Result result = PASSED;
         for (Step step : scenario.getSteps()) {
@@ -314,6 +561,19 @@ public class MockHandler implements ServerHandler {
         return result;
     }
 
+    // already matched by the index, only need to do what pathMatches() would have done
+    private static boolean isMatchingRoute(MockRoutes.Route route, ScenarioEngine engine, Request req) {
+        if (route.path != null && !req.getPath().equals(route.path)) {
+            engine.setVariable(PATH_PARAMS, HttpUtils.parseUriPattern(route.path, req.getPath()));
+        }
+        if (route.expression == null) {
+            engine.logger.debug("default scenario matched at line: {} - {}", route.scenario.getLine(), engine.getVariable(ScenarioEngine.REQUEST_URI));
+        } else {
+            engine.logger.debug("scenario matched at line {} (indexed): {}", route.scenario.getLine(), route.expression);
+        }
+        return true;
+    }
+
     private boolean isMatchingScenario(Scenario scenario, ScenarioEngine engine) {
         String expression = StringUtils.trimToNull(scenario.getName() + scenario.getDescription());
         if (expression == null) {
@@ -0,0 +1,225 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import com.intuit.karate.StringUtils;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * index of the scenarios of a mock feature, built once at load time. scenario
+ * expressions that are only a pathMatches() and / or methodIs() are put into a
+ * method + path-segment trie, everything else is evaluated as js like before.
+ * lookups return routes in declaration order, so that precedence is unchanged
+ *
+ * @author pthomas3
+ */
+public class MockRoutes {
+
+    private static final Logger logger = LoggerFactory.getLogger(MockRoutes.class);
+
+    private static final Pattern PATH_MATCHES = Pattern.compile("pathMatches\\(\\s*(['\"])([^'\"?]*)\\1\\s*\\)");
+    private static final Pattern METHOD_IS = Pattern.compile("methodIs\\(\\s*(['\"])([a-zA-Z]+)\\1\\s*\\)");
+    private static final String ANY_METHOD = "*";
+
+    public static class Route {
+
+        public final Scenario scenario;
+        public final String expression; // null for the default (catch-all) scenario
+        public final boolean indexed;
+        public final String method; // null for any
+        public final String path; // null for any
+
+        private final int index;
+
+        Route(int index, Scenario scenario, String expression, boolean indexed, String method, String path) {
+            this.index = index;
+            this.scenario = scenario;
+            this.expression = expression;
+            this.indexed = indexed;
+            this.method = method;
+            this.path = path;
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap();
+            map.put("line", scenario.getLine());
+            map.put("expression", expression);
+            map.put("indexed", indexed);
+            if (indexed) {
+                map.put("method", method == null ? ANY_METHOD : method);
+                map.put("path", path == null ? ANY_METHOD : path);
+            }
+            return map;
+        }
+
+    }
+
+    private static class Node {
+
+        final Map<String, Node> literals = new HashMap();
+        Node param; // any {name} segment
+        final List<Route> routes = new ArrayList();
+
+        Node child(String segment) {
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                if (param == null) {
+                    param = new Node();
+                }
+                return param;
+            }
+            return literals.computeIfAbsent(segment, k -> new Node());
+        }
+
+        void collect(List<String> segments, int depth, BitSet found) {
+            if (depth == segments.size()) {
+                routes.forEach(r -> found.set(r.index));
+                return;
+            }
+            Node literal = literals.get(segments.get(depth));
+            if (literal != null) {
+                literal.collect(segments, depth + 1, found);
+            }
+            if (param != null) {
+                param.collect(segments, depth + 1, found);
+            }
+        }
+
+    }
+
+    public final Feature feature;
+    private final List<Route> routes = new ArrayList();
+    private final List<Route> fallbacks = new ArrayList();
+    private final List<Route> anyPath = new ArrayList(); // indexed on method only, or catch-all
+    private final Map<String, Node> roots = new HashMap(); // by method
+
+    public MockRoutes(Feature feature) {
+        this.feature = feature;
+        for (FeatureSection fs : feature.getSections()) {
+            if (fs.isOutline()) {
+                logger.warn("skipping scenario outline - {}:{}", feature, fs.getScenarioOutline().getLine());
+                break; // same as the non-indexed behavior, scenarios after an outline are never reached
+            }
+            add(fs.getScenario());
+        }
+    }
+
+    private void add(Scenario scenario) {
+        int index = routes.size();
+        String expression = StringUtils.trimToNull(scenario.getName() + scenario.getDescription());
+        Route route;
+        if (expression == null) {
+            route = new Route(index, scenario, null, true, null, null);
+        } else {
+            route = parse(index, scenario, expression);
+        }
+        routes.add(route);
+        if (!route.indexed) {
+            fallbacks.add(route);
+        } else if (route.path == null) {
+            anyPath.add(route);
+        } else {
+            Node node = roots.computeIfAbsent(route.method == null ? ANY_METHOD : route.method, k -> new Node());
+            for (String segment : split(route.path)) {
+                node = node.child(segment);
+            }
+            node.routes.add(route);
+        }
+    }
+
+    private static Route parse(int index, Scenario scenario, String expression) {
+        String path = null;
+        String method = null;
+        for (String term : expression.split("&&")) {
+            term = term.trim();
+            Matcher pm = PATH_MATCHES.matcher(term);
+            if (pm.matches() && path == null) {
+                path = pm.group(2);
+                continue;
+            }
+            Matcher mm = METHOD_IS.matcher(term);
+            if (mm.matches() && method == null) {
+                method = mm.group(2).toUpperCase();
+                continue;
+            }
+            return new Route(index, scenario, expression, false, null, null);
+        }
+        return new Route(index, scenario, expression, true, method, path);
+    }
+
+    // same rules as HttpUtils.parseUriPattern()
+    private static List<String> split(String path) {
+        int pos = path.indexOf('?');
+        if (pos != -1) {
+            path = path.substring(0, pos);
+        }
+        return StringUtils.split(path, '/', false);
+    }
+
+    // indexed routes that match and all routes that need js evaluation, in declaration order
+    public List<Route> find(String method, String path) {
+        BitSet found = new BitSet(routes.size());
+        List<String> segments = split(path);
+        Node root = roots.get(method.toUpperCase());
+        if (root != null) {
+            root.collect(segments, 0, found);
+        }
+        root = roots.get(ANY_METHOD);
+        if (root != null) {
+            root.collect(segments, 0, found);
+        }
+        for (Route route : anyPath) {
+            if (route.method == null || route.method.equalsIgnoreCase(method)) {
+                found.set(route.index);
+            }
+        }
+        for (Route route : fallbacks) {
+            found.set(route.index);
+        }
+        List<Route> list = new ArrayList(found.cardinality());
+        for (int i = found.nextSetBit(0); i >= 0; i = found.nextSetBit(i + 1)) {
+            list.add(routes.get(i));
+        }
+        return list;
+    }
+
+    public List<Route> getRoutes() {
+        return routes;
+    }
+
+    public List<Map<String, Object>> toList() {
+        List<Map<String, Object>> list = new ArrayList(routes.size());
+        routes.forEach(r -> list.add(r.toMap()));
+        return list;
+    }
+
+}
@@ -158,6 +158,8 @@ public class MockServer extends HttpServer {
         public Response handle(Request request) {
             boolean reload = files.entrySet().stream().reduce(false, (modified, entry) -> entry.getKey().lastModified() > entry.getValue(), (a, b) -> a || b);
             if (reload) {
+                // the new handler starts with empty feature caches, and will not re-load until the next change
+                files.replaceAll((f, lastModified) -> f.lastModified());
                 List<Feature> features = files.keySet().stream().map(f -> Feature.read(f)).collect(Collectors.toList());
                 handler = new MockHandler(prefix, features, args);
             }
@@ -23,15 +23,19 @@
  */
 package com.intuit.karate.core;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * items are pulled from the publisher only when there is room for them, so
+ * at most maxPending items are materialized and queued at a time. pulling
+ * always happens on the monitor (single thread) and items that have to wait
+ * for the previous one are chained without parking a worker thread
  *
  * @author pthomas3
  */
@@ -42,51 +46,89 @@ public abstract class ParallelProcessor<T> {
     private final ExecutorService executor;
     private final ExecutorService monitor;
     private final Iterator<T> publisher;
-    private final List<CompletableFuture> futures = new ArrayList();
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    // only used within pull()
+    private CompletableFuture prevFuture;
+    private double chainWeight;
+    private boolean exhausted;
+    private boolean completed;
 
     public ParallelProcessor(ExecutorService executor, Iterator<T> publisher, ExecutorService monitor) {
+        this(executor, publisher, monitor, Integer.MAX_VALUE);
+    }
+
+    public ParallelProcessor(ExecutorService executor, Iterator<T> publisher, ExecutorService monitor, int maxPending) {
         this.executor = executor;
         this.publisher = publisher;
         this.monitor = monitor;
+        this.maxPending = maxPending;
     }
 
-    private Runnable toRunnable(final CompletableFuture prevFuture, final T next, final CompletableFuture future) {
+    private Runnable toRunnable(final T next, final CompletableFuture future) {
         return () -> {
-            if (prevFuture != null) {
-                prevFuture.join();
-            }
             try {
                 process(next);
             } catch (Exception e) {
                 logger.error("[parallel] input item failed: {}", e.getMessage());
+            } finally {
+                pending.decrementAndGet();
+                future.complete(Boolean.TRUE);
+                try {
+                    monitor.submit(this::pull);
+                } catch (RejectedExecutionException e) {
+                    logger.debug("[parallel] monitor shut down, not pulling more items");
+                }
             }
-            future.complete(Boolean.TRUE);
         };
     }
 
     public void execute() {
-        CompletableFuture prevFuture = null;
-        while (publisher.hasNext()) {
-            final CompletableFuture future = new CompletableFuture();
-            futures.add(future);
-            T next = publisher.next();
-            boolean sync = shouldRunSynchronously(next);
-            executor.submit(toRunnable(prevFuture, next, future));
-            prevFuture = sync ? future : null;
+        pull();
+    }
+
+    private synchronized void pull() {
+        while (!exhausted && pending.get() < maxPending) {
+            if (publisher.hasNext()) {
+                pending.incrementAndGet();
+                schedule(publisher.next());
+            } else {
+                exhausted = true;
+            }
         }
-        final CompletableFuture[] futuresArray = futures.toArray(new CompletableFuture[futures.size()]);
-        monitor.submit(() -> {
-            CompletableFuture.allOf(futuresArray).join();
+        if (exhausted && pending.get() == 0 && !completed) {
+            completed = true;
             onComplete();
-        });
+        }
     }
 
+    private void schedule(T next) {
+        final CompletableFuture future = new CompletableFuture();
+        boolean sync = shouldRunSynchronously(next);
+        // items that wait for the previous one keep the same weight
+        // so that a priority executor does not re-order the chain
+        final double weight = prevFuture == null ? getWeight(next) : chainWeight;
+        chainWeight = weight;
+        Runnable task = toRunnable(next, future);
+        if (prevFuture == null) {
+            executor.submit(LongestFirstExecutor.weighted(weight, task));
+        } else { // queued only after the previous item completes
+            prevFuture.thenRunAsync(task, r -> executor.submit(LongestFirstExecutor.weighted(weight, r)));
+        }
+        prevFuture = sync ? future : null;
+    }
     public boolean shouldRunSynchronously(T in) {
         // parallel by default
         // but allow a per work-item strategy
         return false;
     }
 
+    public double getWeight(T in) {
+        // only used if the executor orders by weight
+        return 0;
+    }
+
     public abstract void process(T in);
 
     public abstract void onComplete();
@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import com.intuit.karate.FileUtils;
+import com.intuit.karate.resource.MemoryResource;
+import com.intuit.karate.resource.Resource;
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * parsed contents of files used by read(), keyed by path and last-modified
+ * time, so that a large csv or json read once per scenario (or per row of an
+ * outline) is loaded from disk and parsed only once per suite. the cached
+ * values are shared across threads and callers are expected to copy them
+ * before handing them over to a scenario. the least recently used entries
+ * are evicted once the total size of the files cached crosses a fraction of
+ * the max heap, since parsed data typically takes a few times that size
+ *
+ * @author pthomas3
+ */
+public class ReadCache {
+
+    private final long maxSize;
+
+    // access-order, guarded by this
+    private final LinkedHashMap<String, Entry> map = new LinkedHashMap(16, 0.75f, true);
+    private long size;
+
+    private final Map<String, Resource> resources = new ConcurrentHashMap();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private static class Entry {
+
+        final Object value;
+        final long lastModified;
+        final long size;
+
+        Entry(Object value, long lastModified, long size) {
+            this.value = value;
+            this.lastModified = lastModified;
+            this.size = size;
+        }
+
+    }
+
+    public ReadCache() {
+        this(Runtime.getRuntime().maxMemory() / 16);
+    }
+
+    public ReadCache(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Resource resolve(String key, Supplier<Resource> resolver) {
+        Resource resource = resources.get(key);
+        if (resource == null) {
+            resource = resolver.get();
+            if (!(resource instanceof MemoryResource)) {
+                resources.put(key, resource);
+            }
+        }
+        return resource;
+    }
+
+    private static String toKey(Resource resource) {
+        File file = resource.getFile();
+        return file == null ? resource.getPrefixedPath() : file.getAbsolutePath();
+    }
+
+    // the parser is given the file contents, and the value it returns is cached
+    public Object get(Resource resource, Function<String, Object> parser) {
+        if (resource instanceof MemoryResource) {
+            return parser.apply(FileUtils.toString(resource.getStream()));
+        }
+        String key = toKey(resource);
+        File file = resource.getFile();
+        long lastModified = file == null ? 0 : file.lastModified();
+        synchronized (this) {
+            Entry entry = map.get(key);
+            if (entry != null && entry.lastModified == lastModified) {
+                hits.increment();
+                return entry.value;
+            }
+        }
+        // parse outside the lock, two threads may parse the same file which is harmless
+        String contents = FileUtils.toString(resource.getStream());
+        Object value = parser.apply(contents);
+        misses.increment();
+        long entrySize = contents.length();
+        if (entrySize > maxSize) {
+            return value;
+        }
+        synchronized (this) {
+            Entry prev = map.put(key, new Entry(value, lastModified, entrySize));
+            if (prev != null) {
+                size -= prev.size;
+            }
+            size += entrySize;
+            Iterator<Entry> iterator = map.values().iterator();
+            while (size > maxSize && iterator.hasNext()) {
+                Entry eldest = iterator.next();
+                size -= eldest.size;
+                iterator.remove();
+            }
+        }
+        return value;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+        size = 0;
+        resources.clear();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + getHits() + ", misses: " + getMisses() + ", size: " + getSize();
+    }
+
+}
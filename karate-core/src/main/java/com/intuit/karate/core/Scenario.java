@@ -79,13 +79,14 @@ public class Scenario {
         }
     }
 
-    // only called for dynamic scenarios
+    // for dynamic scenarios, and for a scenario whose name is evaluated at run time
     public Scenario copy(int exampleIndex) {
         Scenario s = new Scenario(feature, section, exampleIndex);
         s.name = name;
         s.description = description;
         s.tags = tags;
         s.line = line;
+        s.exampleData = exampleData;
         s.dynamicExpression = dynamicExpression;
         s.steps = new ArrayList(steps.size());
         for (Step step : steps) {
@@ -93,6 +94,7 @@ public class Scenario {
             s.steps.add(temp);
             temp.setLine(step.getLine());
             temp.setEndLine(step.getEndLine());
+            temp.setComments(step.getComments());
             temp.setPrefix(step.getPrefix());
             temp.setText(step.getText());
             temp.setDocString(step.getDocString());
@@ -23,6 +23,7 @@
  */
 package com.intuit.karate.core;
 
+import com.intuit.karate.BranchCoverage;
 import com.intuit.karate.FileUtils;
 import com.intuit.karate.Json;
 import com.intuit.karate.JsonUtils;
@@ -50,6 +51,8 @@ import java.io.File;
 import java.io.InputStream;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -59,6 +62,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -188,35 +193,35 @@ public class ScenarioBridge implements PerfContext {
 
     public Object callSingle(String fileName, Value arg) throws Exception {
         ScenarioEngine engine = getEngine();
-        final Map<String, Object> CACHE = engine.runtime.featureRuntime.suite.callSingleCache;
+        final SingleFlightCache<Object> CACHE = engine.runtime.featureRuntime.suite.callSingleCache;
         int minutes = engine.getConfig().getCallSingleCacheMinutes();
-        if ((minutes == 0) && CACHE.containsKey(fileName)) {
-            engine.logger.trace("callSingle cache hit: {}", fileName);
-            return callSingleResult(engine, CACHE.get(fileName));
-        }
-        long startTime = System.currentTimeMillis();
-        engine.logger.trace("callSingle waiting for lock: {}", fileName);
-        synchronized (CACHE) { // lock
-            if ((minutes == 0) && CACHE.containsKey(fileName)) { // retry
-                long endTime = System.currentTimeMillis() - startTime;
-                engine.logger.warn("this thread waited {} milliseconds for callSingle lock: {}", endTime, fileName);
-                return callSingleResult(engine, CACHE.get(fileName));
-            }
-            // this thread is the 'winner'
-            engine.logger.info(">> lock acquired, begin callSingle: {}", fileName);
-            Object result = null;
-            File cacheFile = null;
+        Object result = CACHE.get(fileName, minutes * 60 * 1000L, () -> {
+            // this thread is the 'winner', other threads wait only if they want the same file
+            engine.logger.info(">> begin callSingle: {}", fileName);
+            Object temp = callSingleLoad(engine, fileName, arg, minutes);
+            engine.logger.info("<< cached callSingle: {}", fileName);
+            return temp;
+        });
+        return callSingleResult(engine, result);
+    }
+
+    private Object callSingleLoad(ScenarioEngine engine, String fileName, Value arg, int minutes) throws Exception {
+        File cacheFile = null;
+        CacheFileLock cacheFileLock = null;
+        try {
             if (minutes > 0) {
                 String cleanedName = StringUtils.toIdString(fileName);
                 String cacheFileName = engine.getConfig().getCallSingleCacheDir() + File.separator + cleanedName + ".txt";
                 cacheFile = new File(cacheFileName);
+                // other processes (for e.g. shard workers) wait here for the one writing the cache file
+                cacheFileLock = CacheFileLock.lock(cacheFile);
                 long since = System.currentTimeMillis() - minutes * 60 * 1000;
                 if (cacheFile.exists()) {
                     long lastModified = cacheFile.lastModified();
                     if (lastModified > since) {
                         String json = FileUtils.toString(cacheFile);
-                        result = JsonUtils.fromJson(json);
                         engine.logger.info("callSingleCache hit: {}", cacheFile);
+                        return JsonUtils.fromJson(json);
                     } else {
                         engine.logger.info("callSingleCache stale, last modified {} - is before {} (minutes: {})",
                                 lastModified, since, minutes);
@@ -225,39 +230,83 @@ public class ScenarioBridge implements PerfContext {
                     engine.logger.info("callSingleCache file does not exist, will create: {}", cacheFile);
                 }
             }
-            if (result == null) {
-                Variable called = new Variable(read(fileName));
-                Variable argVar;
-                if (arg == null || arg.isNull()) {
-                    argVar = null;
+            Variable called = new Variable(read(fileName));
+            Variable argVar;
+            if (arg == null || arg.isNull()) {
+                argVar = null;
+            } else {
+                argVar = new Variable(arg);
+            }
+            Variable resultVar;
+            try {
+                resultVar = engine.call(called, argVar, false);
+            } catch (Exception e) {
+                // don't retain any vestiges of graal-js 
+                RuntimeException re = new RuntimeException(e.getMessage());
+                // we do this so that an exception is also "cached"
+                resultVar = new Variable(re); // will be thrown at end
+                engine.logger.warn("callSingle() will cache an exception");
+            }
+            if (minutes > 0) { // cacheFile will be not null
+                if (resultVar.isMapOrList()) {
+                    String json = resultVar.getAsString();
+                    FileUtils.writeToFile(cacheFile, json);
+                    engine.logger.info("callSingleCache write: {}", cacheFile);
                 } else {
-                    argVar = new Variable(arg);
+                    engine.logger.warn("callSingleCache write failed, not json-like: {}", resultVar);
                 }
-                Variable resultVar;
+            }
+            // will be shared across threads
+            return JsValue.detach(resultVar.getValue());
+        } finally {
+            if (cacheFileLock != null) {
+                cacheFileLock.close();
+            }
+        }
+    }
+
+    // a file lock is held by the whole jvm, and a second attempt from the same jvm
+    // throws instead of waiting, so suites in this jvm first take turns on a lock per path
+    private static class CacheFileLock {
+
+        private static final Map<String, ReentrantLock> LOCKS = new ConcurrentHashMap();
+
+        private final ReentrantLock lock;
+        private final FileChannel channel;
+
+        private CacheFileLock(ReentrantLock lock, FileChannel channel) {
+            this.lock = lock;
+            this.channel = channel;
+        }
+
+        static CacheFileLock lock(File cacheFile) throws Exception {
+            File lockFile = new File(cacheFile.getPath() + ".lock");
+            lockFile.getParentFile().mkdirs();
+            ReentrantLock lock = LOCKS.computeIfAbsent(lockFile.getCanonicalPath(), k -> new ReentrantLock());
+            lock.lock();
+            try {
+                FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
                 try {
-                    resultVar = engine.call(called, argVar, false);
+                    channel.lock();
                 } catch (Exception e) {
-                    // don't retain any vestiges of graal-js 
-                    RuntimeException re = new RuntimeException(e.getMessage());
-                    // we do this so that an exception is also "cached"
-                    resultVar = new Variable(re); // will be thrown at end
-                    engine.logger.warn("callSingle() will cache an exception");
+                    channel.close();
+                    throw e;
                 }
-                if (minutes > 0) { // cacheFile will be not null
-                    if (resultVar.isMapOrList()) {
-                        String json = resultVar.getAsString();
-                        FileUtils.writeToFile(cacheFile, json);
-                        engine.logger.info("callSingleCache write: {}", cacheFile);
-                    } else {
-                        engine.logger.warn("callSingleCache write failed, not json-like: {}", resultVar);
-                    }
-                }
-                result = resultVar.getValue();
+                return new CacheFileLock(lock, channel);
+            } catch (Exception e) {
+                lock.unlock();
+                throw e;
             }
-            CACHE.put(fileName, result);
-            engine.logger.info("<< lock released, cached callSingle: {}", fileName);
-            return callSingleResult(engine, result);
         }
+
+        void close() throws Exception {
+            try {
+                channel.close(); // releases the file lock
+            } finally {
+                lock.unlock();
+            }
+        }
+
     }
 
     public Object callonce(String path) {
@@ -299,6 +348,11 @@ public class ScenarioBridge implements PerfContext {
     public void configure(String key, Value value) {
         getEngine().configure(key, new Variable(value));
     }
+
+    public Object coverage() {
+        BranchCoverage.flush();
+        return JsValue.fromJava(BranchCoverage.snapshot());
+    }
     
     public Object consume(String type) {
         return getEngine().consume(type);
@@ -819,24 +873,17 @@ public class ScenarioBridge implements PerfContext {
 
     public Object setupOnce(String name) {
         ScenarioEngine engine = getEngine();
-        final Map<String, Map<String, Object>> CACHE = engine.runtime.featureRuntime.SETUPONCE_CACHE;
-        Map<String, Object> result = CACHE.get(name);
-        if (result != null) {
-            return setupOnceResult(result);
-        }
-        long startTime = System.currentTimeMillis();
-        engine.logger.trace("setupOnce waiting for lock: {}", name);
-        synchronized (CACHE) {
-            result = CACHE.get(name); // retry
-            if (result != null) {
-                long endTime = System.currentTimeMillis() - startTime;
-                engine.logger.warn("this thread waited {} milliseconds for setupOnce lock: {}", endTime, name);
-                return setupOnceResult(result);
-            }
-            result = setupInternal(engine, name);
-            CACHE.put(name, result);
-            return setupOnceResult(result);
+        final SingleFlightCache<Map<String, Object>> CACHE = engine.runtime.featureRuntime.SETUPONCE_CACHE;
+        // no monitor, which would pin a virtual thread, only callers of the same setup wait
+        Map<String, Object> result;
+        try {
+            result = CACHE.get(name == null ? "" : name, () -> setupInternal(engine, name));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
+        return setupOnceResult(result);
     }
 
     private static Object setupOnceResult(Map<String, Object> result) {
@@ -48,6 +48,7 @@ import com.intuit.karate.template.KarateEngineContext;
 import com.intuit.karate.template.KarateTemplateEngine;
 import com.intuit.karate.template.TemplateUtils;
 import com.jayway.jsonpath.PathNotFoundException;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
@@ -87,6 +88,7 @@ public class ScenarioEngine {
     public static final String RESPONSE_HEADERS = "responseHeaders";
     public static final String RESPONSE_STATUS = "responseStatus";
     private static final String RESPONSE_BYTES = "responseBytes";
+    private static final String RESPONSE_STREAM = "responseStream";
     private static final String RESPONSE_COOKIES = "responseCookies";
     private static final String RESPONSE_TIME = "responseTime";
     private static final String RESPONSE_TYPE = "responseType";
@@ -295,6 +297,9 @@ public class ScenarioEngine {
     private Request request; // used only for mocks
     private Response response;
     private Config config;
+    // temp files of responses that were too big to keep in memory, including those
+    // handed over by called features, variables may refer to them until the scenario ends
+    private List<SpilledBody> spilledBodies;
 
     public Config getConfig() {
         return config;
@@ -622,18 +627,23 @@ public class ScenarioEngine {
         final long responseTime = endTime - startTime;
         response.setResponseTime(responseTime);
         allHooks.forEach(h -> h.afterHttpCall(httpRequest, response, runtime));
-        byte[] bytes = response.getBody();
+        // a spilled (large) body stays on disk, and is available as responseStream
+        SpilledBody spilled = response.getSpilledBody();
+        if (spilled != null) {
+            addSpilledBody(spilled);
+        }
+        byte[] bytes = spilled == null ? response.getBody() : null;
         Object body;
         String responseType;
         ResourceType resourceType = response.getResourceType();
         if (resourceType != null && resourceType.isBinary()) {
             responseType = "binary";
-            body = bytes;
+            body = spilled == null ? bytes : spilled.file;
         } else {
             try {
-                body = JsonUtils.fromBytes(bytes, true, resourceType);
+                body = spilled == null ? JsonUtils.fromBytes(bytes, true, resourceType) : spilled.convert(true, resourceType);
             } catch (Exception e) {
-                body = FileUtils.toString(bytes);
+                body = FileUtils.toString(spilled == null ? bytes : spilled.toBytes());
                 logger.warn("auto-conversion of response failed: {}", e.getMessage());
             }
             if (body instanceof Map || body instanceof List) {
@@ -654,6 +664,7 @@ public class ScenarioEngine {
             setVariable(RESPONSE_HEADERS, response.getHeaders());
         }
         setHiddenVariable(RESPONSE_BYTES, bytes);
+        setHiddenVariable(RESPONSE_STREAM, response.getBodyStream());
         setHiddenVariable(RESPONSE_TYPE, responseType);
         cookies = response.getCookies();
         updateConfigCookies(cookies);
@@ -874,9 +885,12 @@ public class ScenarioEngine {
             logger.error("listen timed out: {}", e + "");
         }
         SIGNAL = new CompletableFuture();
-        synchronized (JsFunction.LOCK) {
+        JsFunction.LOCK.lock();
+        try {
             setHiddenVariable(LISTEN_RESULT, listenResult);
             logger.debug("exit listen state with result: {}", listenResult);
+        } finally {
+            JsFunction.LOCK.unlock();
         }
     }
 
@@ -1027,7 +1041,32 @@ public class ScenarioEngine {
         setHiddenVariable(KEY, Key.INSTANCE);
     }
 
+    private synchronized void addSpilledBody(SpilledBody body) {
+        if (spilledBodies == null) {
+            spilledBodies = new ArrayList();
+        }
+        spilledBodies.add(body);
+    }
+
+    private void stopSpilledBodies() {
+        List<SpilledBody> bodies;
+        synchronized (this) {
+            bodies = spilledBodies;
+            spilledBodies = null;
+        }
+        if (bodies == null) {
+            return;
+        }
+        if (runtime.caller.depth == 0 || runtime.caller.parentRuntime == null) {
+            bodies.forEach(SpilledBody::delete);
+        } else { // the caller may use the response, and deletes the files when it ends
+            ScenarioEngine caller = runtime.caller.parentRuntime.engine;
+            bodies.forEach(caller::addSpilledBody);
+        }
+    }
+
     public void stop(StepResult lastStepResult) {
+        stopSpilledBodies();
         if (runtime.caller.isSharedScope()) {
             // TODO life-cycle this hand off
             ScenarioEngine caller = runtime.caller.parentRuntime.engine;
@@ -1250,6 +1289,21 @@ public class ScenarioEngine {
         }
     }
 
+    protected void setConfigSnapshot(ScenarioCall.Result snapshot) {
+        // deep copy so that scenarios don't see each other's mutations
+        // and re-create js functions, the original graal context may be in use by another thread
+        snapshot.vars.forEach((k, v) -> {
+            Object value = v.copy(true).getValue();
+            if (value instanceof JsFunction.Executable) {
+                value = JS.evalForValue(((JsFunction.Executable) value).getSource());
+            } else {
+                value = JS.attachAll(value);
+            }
+            setVariable(k, value);
+        });
+        setConfig(new Config(snapshot.config));
+    }
+
     protected Map<String, Variable> shallowCloneVariables() {
         Map<String, Variable> copy = new HashMap(vars.size());
         vars.forEach((k, v) -> copy.put(k, v.copy(false))); // shallow clone
@@ -1291,6 +1345,16 @@ public class ScenarioEngine {
         }
     }
 
+    public Variable evalJs(Source source) {
+        try {
+            return new Variable(JS.eval(source));
+        } catch (Exception e) {
+            KarateException ke = JsEngine.fromJsEvalException(source.getCharacters().toString(), e, null);
+            setFailedReason(ke);
+            throw ke;
+        }
+    }
+
     public void setHiddenVariable(String key, Object value) {
         if (value instanceof Variable) {
             value = ((Variable) value).getValue();
@@ -1849,7 +1913,7 @@ public class ScenarioEngine {
     }
 
     public Match.Result match(Match.Type matchType, Object actual, Object expected) {
-        return Match.execute(JS, matchType, actual, expected, config.isMatchEachEmptyAllowed());
+        return Match.execute(JS, matchType, actual, expected, config.isMatchEachEmptyAllowed(), config.getMatchParallelThreshold());
     }
 
     private static final Pattern VAR_AND_PATH_PATTERN = Pattern.compile("\\w+");
@@ -1998,37 +2062,35 @@ public class ScenarioEngine {
     }
 
     private Variable callOnce(String cacheKey, Variable called, Variable arg, boolean sharedScope) {
-        final Map<String, ScenarioCall.Result> CACHE;
+        final SingleFlightCache<ScenarioCall.Result> CACHE;
         if (runtime.perfMode) { // use suite-wide cache for gatling
             CACHE = runtime.featureRuntime.suite.callOnceCache;
         } else {
             CACHE = runtime.featureRuntime.CALLONCE_CACHE;
         }
-        ScenarioCall.Result result = CACHE.get(cacheKey);
-        if (result != null) {
-            logger.trace("callonce cache hit for: {}", cacheKey);
-            return callOnceResult(result, sharedScope);
-        }
-        long startTime = System.currentTimeMillis();
-        logger.trace("callonce waiting for lock: {}", cacheKey);
-        synchronized (CACHE) {
-            result = CACHE.get(cacheKey); // retry
-            if (result != null) {
-                long endTime = System.currentTimeMillis() - startTime;
-                logger.warn("this thread waited {} milliseconds for callonce lock: {}", endTime, cacheKey);
-                return callOnceResult(result, sharedScope);
-            }
-            // this thread is the 'winner'
-            logger.info(">> lock acquired, begin callonce: {}", cacheKey);
-            Variable callResult = call(called, arg, sharedScope);
-            // we clone result (and config) here, to snapshot state at the point the callonce was invoked
-            Map<String, Variable> clonedVars = called.isFeature() && sharedScope ? shallowCloneVariables() : null;
-            result = new ScenarioCall.Result(callResult.copy(false), new Config(config), clonedVars);
-            CACHE.put(cacheKey, result);
-            logger.info("<< lock released, cached callonce: {}", cacheKey);
-            // another routine will apply globally if needed
-            return callOnceResult(result, sharedScope);
+        ScenarioCall.Result result;
+        try {
+            result = CACHE.get(cacheKey, () -> {
+                // this thread is the 'winner', other threads wait only if they want the same key
+                logger.info(">> begin callonce: {}", cacheKey);
+                Variable callResult = call(called, arg, sharedScope);
+                // we clone result (and config) here, to snapshot state at the point the callonce was invoked
+                Map<String, Variable> clonedVars = called.isFeature() && sharedScope ? shallowCloneVariables() : null;
+                // other scenarios (threads) will use the result, so no lazy js views
+                if (clonedVars != null) {
+                    clonedVars.replaceAll((k, v) -> new Variable(JsValue.detach(v.getValue())));
+                }
+                Variable resultValue = new Variable(JsValue.detach(callResult.copy(false).getValue()));
+                logger.info("<< cached callonce: {}", cacheKey);
+                return new ScenarioCall.Result(resultValue, new Config(config), clonedVars);
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
         }
+        // another routine will apply globally if needed
+        return callOnceResult(result, sharedScope);
     }
 
     public Object callFeature(FeatureCall featureCall, Variable arg, int index, boolean sharedScope) {
@@ -24,6 +24,7 @@
 package com.intuit.karate.core;
 
 import com.intuit.karate.FileUtils;
+import com.intuit.karate.Json;
 import com.intuit.karate.StringUtils;
 import com.intuit.karate.JsonUtils;
 import com.intuit.karate.resource.Resource;
@@ -50,7 +51,11 @@ public class ScenarioFileReader {
         text = pair.left;
         if (text == null && pair.right != null && pair.right.startsWith("@")) {
             return new FeatureCall(this.featureRuntime.featureCall.feature, pair.right, -1, null);
-        } else if (isJsonFile(text) || isXmlFile(text)) {
+        }
+        if (engine.getConfig().isReadCache() && !isFeatureFile(text)) {
+            return readFileCached(text);
+        }
+        if (isJsonFile(text) || isXmlFile(text)) {
             String contents = readFileAsString(text);
             Variable temp = engine.evalKarateExpression(contents);
             return temp.getValue();
@@ -62,7 +67,7 @@ public class ScenarioFileReader {
             return readFileAsString(text);
         } else if (isFeatureFile(text)) {
             Resource fr = toResource(text);
-            Feature feature = Feature.read(fr);
+            Feature feature = featureRuntime.suite.featureCache.read(fr);
             return new FeatureCall(feature, pair.right, -1, null);
         } else if (isCsvFile(text)) {
             String contents = readFileAsString(text);
@@ -78,6 +83,43 @@ public class ScenarioFileReader {
         }
     }
 
+    // same as above, but json, yaml and csv are parsed only once and every
+    // caller gets a copy, embedded expressions are still evaluated per call
+    private Object readFileCached(String text) {
+        ReadCache cache = featureRuntime.suite.readCache;
+        Resource resource = toResource(text);
+        if (isJsonFile(text) || isXmlFile(text)) {
+            Object value = cache.get(resource, ScenarioFileReader::parseJsonIfPossible);
+            if (value instanceof String) { // xml or not a json object or array
+                return engine.evalKarateExpression((String) value).getValue();
+            }
+            return engine.evalEmbeddedExpressions(new Variable(JsonUtils.deepCopy(value)), false).getValue();
+        } else if (isJavaScriptFile(text)) {
+            String contents = (String) cache.get(resource, raw -> raw);
+            return engine.evalJs("(" + contents + ")").getValue();
+        } else if (isTextFile(text) || isGraphQlFile(text)) {
+            return cache.get(resource, raw -> raw);
+        } else if (isCsvFile(text)) {
+            return JsonUtils.deepCopy(cache.get(resource, JsonUtils::fromCsv));
+        } else if (isYamlFile(text)) {
+            Object value = cache.get(resource, raw -> parseJsonIfPossible(JsonUtils.toJson(JsonUtils.fromYaml(raw))));
+            if (value instanceof String) {
+                return engine.evalKarateExpression((String) value).getValue();
+            }
+            return engine.evalEmbeddedExpressions(new Variable(JsonUtils.deepCopy(value)), false).getValue();
+        } else {
+            return FileUtils.toBytes(resource.getStream());
+        }
+    }
+
+    private static Object parseJsonIfPossible(String contents) {
+        String trimmed = StringUtils.trimToNull(contents);
+        if (trimmed != null && ScenarioEngine.isJson(trimmed)) {
+            return Json.of(trimmed).value();
+        }
+        return contents;
+    }
+
     public String toAbsolutePath(String relativePath) {
         Resource resource = toResource(relativePath);
         try {
@@ -125,6 +167,21 @@ public class ScenarioFileReader {
     }
 
     public Resource toResource(String path) {
+        if (engine.getConfig().isReadCache()) {
+            String key;
+            if (isClassPath(path) || isFilePath(path)) {
+                key = path;
+            } else if (isThisPath(path)) {
+                key = featureRuntime.featureCall.feature.getResource().getPrefixedPath() + "|" + path;
+            } else {
+                key = featureRuntime.rootFeature.featureCall.feature.getResource().getPrefixedPath() + "|" + path;
+            }
+            return featureRuntime.suite.readCache.resolve(key, () -> resolve(path));
+        }
+        return resolve(path);
+    }
+
+    private Resource resolve(String path) {
         if (isClassPath(path)) {
             return ResourceUtils.getResource(featureRuntime.suite.workingDir, path);
         } else if (isFilePath(path)) {
@@ -82,6 +82,11 @@ public class ScenarioRuntime implements Runnable {
         }
         logger.setAppender(logAppender);
         actions = new ScenarioActions(engine);
+        // the feature may be cached and shared across calls and threads, and
+        // evaluateScenarioName() changes the name, outline examples are already copies
+        if (!scenario.isOutlineExample() && isNameEvaluated(scenario.getName())) {
+            scenario = scenario.copy(scenario.getExampleIndex());
+        }
         this.scenario = scenario;
         if (scenario.isDynamic() && !scenario.isOutlineExample()) { // from dynamic scenario iterator
             steps = Collections.emptyList();
@@ -185,7 +190,7 @@ public class ScenarioRuntime implements Runnable {
 
     private List<FeatureResult> callResults;
 
-    public void addCallResult(FeatureResult fr) {
+    public synchronized void addCallResult(FeatureResult fr) {
         if (callResults == null) {
             callResults = new ArrayList();
         }
@@ -293,7 +298,7 @@ public class ScenarioRuntime implements Runnable {
             return;
         }
         try {
-            Variable fun = engine.evalJs("(" + js + ")");
+            Variable fun = engine.evalJs(featureRuntime.suite.getConfigSource(js, displayName));
             if (!fun.isJsFunction()) {
                 logger.warn("not a valid js function: {}", displayName);
                 return;
@@ -308,6 +313,26 @@ public class ScenarioRuntime implements Runnable {
         }
     }
 
+    private void evalConfig() {
+        Map<String, Variable> before = new HashMap(engine.vars);
+        // evaluate config js, variables above will apply !
+        evalConfigJs(featureRuntime.suite.karateBase, "karate-base.js");
+        evalConfigJs(featureRuntime.suite.karateConfig, "karate-config.js");
+        evalConfigJs(featureRuntime.suite.karateConfigEnv, "karate-config-" + featureRuntime.suite.env + ".js");
+        if (configFailed || engine.getConfig().getConfigCache() == null) {
+            return;
+        }
+        // only what the config js added or replaced, not what was already there
+        Map<String, Variable> vars = new HashMap();
+        engine.vars.forEach((k, v) -> {
+            if (before.get(k) != v) {
+                vars.put(k, v.copy(true));
+            }
+        });
+        featureRuntime.suite.setConfigSnapshot(new ScenarioCall.Result(null, new Config(engine.getConfig()), vars));
+        logger.debug("cached config snapshot ({}), variables: {}", engine.getConfig().getConfigCache(), vars.keySet());
+    }
+
     private static boolean isSelectedForExecution(FeatureRuntime fr, Scenario scenario, Tags tags) {
         org.slf4j.Logger logger = FeatureRuntime.logger;
         int callLine = fr.featureCall.callLine;
@@ -366,10 +391,12 @@ public class ScenarioRuntime implements Runnable {
         result.setStartTime(System.currentTimeMillis());
         if (!dryRun) {
             if (caller.isNone() && !caller.isKarateConfigDisabled()) {
-                // evaluate config js, variables above will apply !
-                evalConfigJs(featureRuntime.suite.karateBase, "karate-base.js");
-                evalConfigJs(featureRuntime.suite.karateConfig, "karate-config.js");
-                evalConfigJs(featureRuntime.suite.karateConfigEnv, "karate-config-" + featureRuntime.suite.env + ".js");
+                ScenarioCall.Result snapshot = featureRuntime.suite.getConfigSnapshot();
+                if (snapshot != null) {
+                    engine.setConfigSnapshot(snapshot);
+                } else {
+                    evalConfig();
+                }
             }
             skipped = !featureRuntime.suite.hooks.stream()
                     .map(h -> h.beforeScenario(this))
@@ -541,12 +568,21 @@ public class ScenarioRuntime implements Runnable {
         return scenario.toString();
     }
 
-    public void evaluateScenarioName() {
-        String scenarioName = scenario.getName();
-        boolean wrappedByBackTick = scenarioName != null
+    private static boolean isWrappedByBackTick(String scenarioName) {
+        return scenarioName != null
                 && scenarioName.length() > 1
                 && '`' == scenarioName.charAt(0)
                 && '`' == scenarioName.charAt((scenarioName.length() - 1));
+    }
+
+    private static boolean isNameEvaluated(String scenarioName) {
+        return scenarioName != null
+                && (isWrappedByBackTick(scenarioName) || ScenarioEngine.hasJavaScriptPlacehoder(scenarioName));
+    }
+
+    public void evaluateScenarioName() {
+        String scenarioName = scenario.getName();
+        boolean wrappedByBackTick = isWrappedByBackTick(scenarioName);
         boolean hasJavascriptPlaceholder = ScenarioEngine.hasJavaScriptPlacehoder(scenarioName);
         if (wrappedByBackTick || hasJavascriptPlaceholder) {
             String eval = scenarioName;
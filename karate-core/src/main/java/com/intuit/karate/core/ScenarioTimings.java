@@ -0,0 +1,233 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import com.intuit.karate.Constants;
+import com.intuit.karate.FileUtils;
+import com.intuit.karate.JsonUtils;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * scenario durations from a previous run, used to predict how long a
+ * scenario or feature will take, keyed by feature package-qualified-name and
+ * scenario ref-id. loaded from the compact {@value #FILE_NAME} in the report
+ * dir, or from the karate-json files if that does not exist
+ *
+ * @author pthomas3
+ */
+public class ScenarioTimings {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScenarioTimings.class);
+
+    public static final String FILE_NAME = "karate-timings.json";
+
+    private final Map<String, Map<String, Number>> features = new ConcurrentHashMap();
+    private final double defaultMillis;
+
+    private ScenarioTimings(Map<String, Map<String, Number>> previous) {
+        double total = 0;
+        int count = 0;
+        for (Map.Entry<String, Map<String, Number>> entry : previous.entrySet()) {
+            Map<String, Number> scenarios = new ConcurrentHashMap(entry.getValue());
+            features.put(entry.getKey(), scenarios);
+            for (Number millis : scenarios.values()) {
+                total += millis.doubleValue();
+                count++;
+            }
+        }
+        // scenarios without history are assumed to take the average time
+        defaultMillis = count == 0 ? 0 : total / count;
+    }
+
+    public static ScenarioTimings empty() {
+        return new ScenarioTimings(Collections.emptyMap());
+    }
+
+    public static ScenarioTimings load(String reportDir) {
+        File file = new File(reportDir + File.separator + FILE_NAME);
+        Map<String, Map<String, Number>> map;
+        try {
+            if (file.exists()) {
+                map = (Map) JsonUtils.fromJson(FileUtils.toString(file));
+            } else {
+                map = fromKarateJsonFiles(new File(reportDir));
+            }
+        } catch (Exception e) {
+            logger.warn("unable to load scenario timings from {}: {}", reportDir, e.getMessage());
+            map = Collections.emptyMap();
+        }
+        return new ScenarioTimings(map);
+    }
+
+    private static Map<String, Map<String, Number>> fromKarateJsonFiles(File dir) {
+        Map<String, Map<String, Number>> map = new ConcurrentHashMap();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(Constants.KARATE_JSON_SUFFIX));
+        if (files == null) {
+            return map;
+        }
+        for (File file : files) {
+            Map<String, Object> json = (Map) JsonUtils.fromJson(FileUtils.toString(file));
+            String featureKey = (String) json.get("packageQualifiedName");
+            List<Map<String, Object>> list = (List) json.get("scenarioResults");
+            if (featureKey == null || list == null) {
+                continue;
+            }
+            Map<String, Number> scenarios = new ConcurrentHashMap(list.size());
+            for (Map<String, Object> sr : list) {
+                scenarios.put((String) sr.get("refId"), (Number) sr.get("durationMillis"));
+            }
+            map.put(featureKey, scenarios);
+        }
+        return map;
+    }
+
+    public boolean isEmpty() {
+        return features.isEmpty();
+    }
+
+    public double predict(Scenario scenario) {
+        Map<String, Number> scenarios = features.get(scenario.getFeature().getPackageQualifiedName());
+        Number millis = scenarios == null ? null : scenarios.get(scenario.getRefId());
+        return millis == null ? defaultMillis : millis.doubleValue();
+    }
+
+    public double predict(Feature feature) {
+        Map<String, Number> scenarios = features.get(feature.getPackageQualifiedName());
+        if (scenarios == null) {
+            return defaultMillis * feature.getSections().size();
+        }
+        double total = 0;
+        for (Number millis : scenarios.values()) {
+            total += millis.doubleValue();
+        }
+        return total;
+    }
+
+    // longest processing time first on a given number of threads, features
+    // that are tagged @parallel=false are treated as one long task
+    public double predictMakespan(Collection<Feature> list, int threadCount) {
+        List<Double> tasks = new ArrayList();
+        for (Feature feature : list) {
+            Map<String, Number> scenarios = features.get(feature.getPackageQualifiedName());
+            if (scenarios == null || isSequential(feature)) {
+                tasks.add(predict(feature));
+            } else {
+                scenarios.values().forEach(millis -> tasks.add(millis.doubleValue()));
+            }
+        }
+        tasks.sort(Collections.reverseOrder());
+        PriorityQueue<Double> threads = new PriorityQueue();
+        for (int i = 0; i < Math.max(threadCount, 1); i++) {
+            threads.add(0.0);
+        }
+        for (Double task : tasks) {
+            threads.add(threads.poll() + task);
+        }
+        double makespan = 0;
+        for (Double total : threads) {
+            makespan = Math.max(makespan, total);
+        }
+        return makespan;
+    }
+
+    // features without history (or when there is no history at all) are
+    // weighted by the number of scenarios instead
+    private double weight(Feature feature) {
+        if (isEmpty()) {
+            int count = 0;
+            for (FeatureSection section : feature.getSections()) {
+                count += section.isOutline() ? section.getScenarioOutline().getScenarios().size() : 1;
+            }
+            return count;
+        }
+        return predict(feature);
+    }
+
+    // longest first onto the shard with the least work so far, this only
+    // depends on the inputs so that every process computes the same split
+    public List<List<FeatureCall>> shard(List<FeatureCall> list, int total) {
+        int count = list.size();
+        double[] weights = new double[count];
+        List<Integer> order = new ArrayList(count);
+        for (int i = 0; i < count; i++) {
+            weights[i] = weight(list.get(i).feature);
+            order.add(i);
+        }
+        order.sort((a, b) -> {
+            int result = Double.compare(weights[b], weights[a]);
+            return result == 0 ? Integer.compare(a, b) : result;
+        });
+        double[] loads = new double[total];
+        List<List<Integer>> indexes = new ArrayList(total);
+        for (int i = 0; i < total; i++) {
+            indexes.add(new ArrayList());
+        }
+        for (int i : order) {
+            int min = 0;
+            for (int j = 1; j < total; j++) {
+                if (loads[j] < loads[min]) {
+                    min = j;
+                }
+            }
+            loads[min] += weights[i];
+            indexes.get(min).add(i);
+        }
+        List<List<FeatureCall>> shards = new ArrayList(total);
+        for (List<Integer> temp : indexes) {
+            Collections.sort(temp); // keep the original order within a shard
+            List<FeatureCall> shard = new ArrayList(temp.size());
+            temp.forEach(i -> shard.add(list.get(i)));
+            shards.add(shard);
+        }
+        return shards;
+    }
+
+    public static boolean isSequential(Feature feature) {
+        List<Tag> tags = feature.getTags();
+        return tags != null && new Tags(tags).valuesFor("parallel").isAnyOf("false");
+    }
+
+    public void record(FeatureResult fr) {
+        Map<String, Number> scenarios = features.computeIfAbsent(fr.getFeature().getPackageQualifiedName(), k -> new ConcurrentHashMap());
+        for (ScenarioResult sr : fr.getScenarioResults()) {
+            scenarios.put(sr.getScenario().getRefId(), Math.round(sr.getDurationMillis()));
+        }
+    }
+
+    public File save(String reportDir) {
+        File file = new File(reportDir + File.separator + FILE_NAME);
+        FileUtils.writeToFile(file, JsonUtils.toJson(features));
+        return file;
+    }
+
+}
@@ -0,0 +1,198 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * cache where only one thread computes the value for a given key, and other
+ * threads that want the same key wait for that result - but threads that
+ * want a different key are never blocked. lookups of completed values are
+ * lock-free. a failed load is not cached, the next caller will try again
+ *
+ * @author pthomas3
+ */
+public class SingleFlightCache<T> {
+
+    private final ConcurrentHashMap<String, Entry<T>> map = new ConcurrentHashMap();
+    // optional, a plain map that other caches may also use, see Runner.Builder.callSingleCache(Map)
+    private final Map<String, T> shared;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitMillis = new LongAdder();
+
+    private static class Entry<T> {
+
+        final CompletableFuture<T> future = new CompletableFuture();
+        volatile long loadedTime;
+
+        boolean isExpired(long ttlMillis) {
+            return ttlMillis > 0 && future.isDone() && System.currentTimeMillis() - loadedTime > ttlMillis;
+        }
+
+    }
+
+    public SingleFlightCache() {
+        this(null);
+    }
+
+    // values are also read from and written to the map, which is locked while in use
+    public SingleFlightCache(Map<String, T> shared) {
+        this.shared = shared;
+    }
+
+    public T get(String key, Callable<T> loader) throws Exception {
+        return get(key, 0, loader);
+    }
+
+    // a ttl of zero means the value never expires
+    public T get(String key, long ttlMillis, Callable<T> loader) throws Exception {
+        Entry<T> entry = map.get(key);
+        if (entry != null && entry.future.isDone() && !entry.future.isCompletedExceptionally() && !entry.isExpired(ttlMillis)) {
+            hits.increment();
+            return entry.future.getNow(null);
+        }
+        while (true) {
+            entry = map.get(key);
+            if (entry != null && entry.isExpired(ttlMillis)) {
+                if (map.remove(key, entry)) {
+                    removeShared(key);
+                }
+                entry = null;
+            }
+            if (entry == null) {
+                Entry<T> fresh = new Entry();
+                entry = map.putIfAbsent(key, fresh);
+                if (entry == null) { // this thread is the 'winner'
+                    misses.increment();
+                    return load(key, fresh, loader);
+                }
+            }
+            long startTime = System.currentTimeMillis();
+            boolean waited = !entry.future.isDone();
+            try {
+                T value = entry.future.get();
+                if (waited) {
+                    waits.increment();
+                    waitMillis.add(System.currentTimeMillis() - startTime);
+                }
+                hits.increment();
+                return value;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw new RuntimeException(cause);
+            }
+        }
+    }
+
+    private T load(String key, Entry<T> entry, Callable<T> loader) throws Exception {
+        T value;
+        try {
+            value = shared == null ? loader.call() : loadShared(key, loader);
+        } catch (Throwable t) {
+            map.remove(key, entry); // so that the next call will re-try
+            entry.future.completeExceptionally(t);
+            throw t;
+        }
+        entry.loadedTime = System.currentTimeMillis();
+        entry.future.complete(value);
+        return value;
+    }
+
+    private T loadShared(String key, Callable<T> loader) throws Exception {
+        synchronized (shared) {
+            if (shared.containsKey(key)) {
+                return shared.get(key);
+            }
+        }
+        T value = loader.call();
+        synchronized (shared) {
+            shared.put(key, value);
+        }
+        return value;
+    }
+
+    private void removeShared(String key) {
+        if (shared != null) {
+            synchronized (shared) {
+                shared.remove(key);
+            }
+        }
+    }
+
+    public boolean isLoaded(String key) {
+        Entry<T> entry = map.get(key);
+        return entry != null && entry.future.isDone() && !entry.future.isCompletedExceptionally();
+    }
+
+    public void remove(String key) {
+        map.remove(key);
+        removeShared(key);
+    }
+
+    public void clear() {
+        map.clear();
+        if (shared != null) {
+            synchronized (shared) {
+                shared.clear();
+            }
+        }
+    }
+
+    public int size() {
+        return map.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getWaits() {
+        return waits.sum();
+    }
+
+    public long getWaitMillis() {
+        return waitMillis.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "hits: " + getHits() + ", misses: " + getMisses() + ", waits: " + getWaits() + " (" + getWaitMillis() + " ms)";
+    }
+
+}
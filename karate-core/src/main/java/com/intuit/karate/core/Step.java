@@ -48,6 +48,7 @@ public class Step {
     private String text;
     private String docString;
     private Table table;
+    private StepRuntime.StepBinding binding; // immutable, so a racy write is harmless
 
     public static final List<String> PREFIXES = Arrays.asList("*", "Given", "When", "Then", "And", "But");
 
@@ -223,6 +224,14 @@ public class Step {
         this.comments = comments;
     }
 
+    StepRuntime.StepBinding getBinding() {
+        return binding;
+    }
+
+    void setBinding(StepRuntime.StepBinding binding) {
+        this.binding = binding;
+    }
+
     public boolean isFake() {
         return getIndex() == -1;
     }
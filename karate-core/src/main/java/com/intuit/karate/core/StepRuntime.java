@@ -29,7 +29,9 @@ import com.intuit.karate.JsonUtils;
 import com.intuit.karate.KarateException;
 import com.intuit.karate.ScenarioActions;
 import com.intuit.karate.StringUtils;
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -59,6 +61,7 @@ public class StepRuntime {
 
         final String regex;
         final Method method;
+        final MethodHandle invoker;
         final Pattern pattern;
         final String keyword;
 
@@ -68,6 +71,10 @@ public class StepRuntime {
             this.method = method;
             try {
                 pattern = Pattern.compile(regex);
+                // (Object actions, Object[] args) -> Object, so that invokeExact() can be used
+                invoker = MethodHandles.publicLookup().unreflect(method)
+                        .asSpreader(Object[].class, method.getParameterCount())
+                        .asType(MethodType.methodType(Object.class, Object.class, Object[].class));
             } catch (Exception e) {
                 throw new RuntimeException(e);
             }
@@ -80,6 +87,16 @@ public class StepRuntime {
             keyword = keyword1;
         }
 
+        boolean isKeywordLiteral() {
+            if (!WORD.matcher(keyword).matches() || !regex.startsWith("^" + keyword)) {
+                return false;
+            }
+            // the keyword has to be followed by white-space or the end for text to be dispatched on its first word
+            String rest = regex.substring(keyword.length() + 1);
+            return rest.isEmpty() || rest.startsWith(" ") || rest.startsWith("$")
+                    || rest.startsWith("\\h") || rest.startsWith("\\s");
+        }
+
         List<String> match(String text) {
             Matcher matcher = pattern.matcher(text);
             if (matcher.lookingAt()) {
@@ -191,8 +208,41 @@ public class StepRuntime {
 
     }
 
+    /**
+     * a step text resolved to the matching step-definition method, with the
+     * arguments parsed out of the text already converted. immutable, so it can
+     * be cached on the {@link Step} and shared across threads
+     */
+    static class StepBinding {
+
+        final String text;
+        final MethodMatch match;
+        final MethodHandle invoker;
+        private final Object[] args;
+
+        StepBinding(String text, MethodPattern pattern, MethodMatch match) {
+            this.text = text;
+            this.match = match;
+            invoker = pattern.invoker;
+            args = match.convertArgs(null);
+        }
+
+        Object[] getArgs(Object last) {
+            Object[] result = args.clone();
+            if (last != null) {
+                result[match.args.size()] = last;
+            }
+            return result;
+        }
+
+    }
+
+    private static final Pattern WORD = Pattern.compile("\\w+");
+
     private static final Collection<MethodPattern> PATTERNS;
     private static final Map<String, Collection<Method>> KEYWORDS_METHODS;
+    private static final Map<String, List<MethodPattern>> KEYWORDS_PATTERNS;
+    private static final List<MethodPattern> NON_KEYWORD_PATTERNS;
     public static final Collection<Method> METHOD_MATCH;
 
     static {
@@ -220,18 +270,67 @@ public class StepRuntime {
             keywordMethods.add(mp.method);
         }
         PATTERNS = temp.values();
+        KEYWORDS_PATTERNS = new HashMap();
+        NON_KEYWORD_PATTERNS = new ArrayList();
+        for (MethodPattern mp : PATTERNS) {
+            if (mp.isKeywordLiteral()) {
+                KEYWORDS_PATTERNS.computeIfAbsent(mp.keyword, k -> new ArrayList()).add(mp);
+            } else {
+                NON_KEYWORD_PATTERNS.add(mp);
+            }
+        }
         METHOD_MATCH = findMethodsByKeyword("match");
     }
 
-    private static List<MethodMatch> findMethodsMatching(String text) {
-        List<MethodMatch> matches = new ArrayList(1);
-        for (MethodPattern pattern : PATTERNS) {
+    private static String firstWord(String text) {
+        int len = text.length();
+        int i = 0;
+        while (i < len) {
+            char c = text.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_') {
+                i++;
+            } else {
+                break;
+            }
+        }
+        return text.substring(0, i);
+    }
+
+    private static void findMethodsMatching(String text, Collection<MethodPattern> patterns, List<MethodPattern> matched, List<MethodMatch> matches) {
+        for (MethodPattern pattern : patterns) {
             List<String> args = pattern.match(text);
             if (args != null) {
+                matched.add(pattern);
                 matches.add(new MethodMatch(pattern.method, args));
             }
         }
-        return matches;
+    }
+
+    private static StepBinding bind(Step step, String text) {
+        StepBinding binding = step.getBinding();
+        if (binding != null && binding.text.equals(text)) {
+            return binding;
+        }
+        // only patterns that start with the first word of the text (or that are not keyword based) can match
+        List<MethodPattern> matched = new ArrayList(1);
+        List<MethodMatch> matches = new ArrayList(1);
+        List<MethodPattern> keywordPatterns = KEYWORDS_PATTERNS.get(firstWord(text));
+        if (keywordPatterns != null) {
+            findMethodsMatching(text, keywordPatterns, matched, matches);
+        }
+        findMethodsMatching(text, NON_KEYWORD_PATTERNS, matched, matches);
+        if (matches.isEmpty()) {
+            throw new KarateException("no step-definition method match found for: " + text);
+        } else if (matches.size() > 1) {
+            throw new KarateException("more than one step-definition method matched: " + text + " - " + matches);
+        }
+        try {
+            binding = new StepBinding(text, matched.get(0), matches.get(0));
+        } catch (Exception ignored) { // edge case where user error causes [request =] to match [request docstring]
+            throw new KarateException("no step-definition method match found for: " + text);
+        }
+        step.setBinding(binding);
+        return binding;
     }
 
     public static Collection<Method> findMethodsByKeywords(List<String> text) {
@@ -257,15 +356,13 @@ public class StepRuntime {
 
     public static Result execute(Step step, Actions actions) {
         String text = step.getText();
-        List<MethodMatch> matches = findMethodsMatching(text);
-        if (matches.isEmpty()) {
-            KarateException e = new KarateException("no step-definition method match found for: " + text);
-            return Result.failed(System.currentTimeMillis(), 0, e, step);
-        } else if (matches.size() > 1) {
-            KarateException e = new KarateException("more than one step-definition method matched: " + text + " - " + matches);
+        StepBinding binding;
+        try {
+            binding = bind(step, text);
+        } catch (KarateException e) {
             return Result.failed(System.currentTimeMillis(), 0, e, step);
         }
-        MethodMatch match = matches.get(0);
+        MethodMatch match = binding.match;
         Object last;
         if (step.getDocString() != null) {
             last = step.getDocString();
@@ -276,7 +373,7 @@ public class StepRuntime {
         }
         Object[] args;
         try {
-            args = match.convertArgs(last);
+            args = binding.getArgs(last);
         } catch (Exception ignored) { // edge case where user error causes [request =] to match [request docstring]
             KarateException e = new KarateException("no step-definition method match found for: " + text);
             return Result.failed(System.currentTimeMillis(), 0, e, step);
@@ -284,7 +381,7 @@ public class StepRuntime {
         final long startTime = System.currentTimeMillis();
         final long startTimeNanos = System.nanoTime();
         try {
-            match.method.invoke(actions, args);
+            Object ignored = (Object) binding.invoker.invokeExact((Object) actions, args);
             final long elapsedTimeNanos = getElapsedTimeNanos(startTimeNanos);
             if (actions.isAborted()) {
                 return Result.aborted(startTime, elapsedTimeNanos, match);
@@ -293,9 +390,7 @@ public class StepRuntime {
             } else {
                 return Result.passed(startTime, elapsedTimeNanos, match);
             }
-        } catch (InvocationTargetException e) {
-            return Result.failed(startTime, getElapsedTimeNanos(startTimeNanos), e.getTargetException(), step, match);
-        } catch (Exception e) {
+        } catch (Throwable e) {
             return Result.failed(startTime, getElapsedTimeNanos(startTimeNanos), e, step, match);
         }
     }
@@ -42,20 +42,23 @@ public class TagResults {
     private final List<Map<String, Object>> featureTagsList = new ArrayList();
 
     public void addFeatureResult(FeatureResult fr) {
+        addFeatureSummary(new FeatureSummary(fr));
+    }
+
+    public void addFeatureSummary(FeatureSummary fs) {
         Map<String, Object> featureTags = new HashMap();
         featureTagsList.add(featureTags);
-        featureTags.put("featureSummary", fr.toSummaryJson());
+        featureTags.put("featureSummary", fs.summaryJson);
         Set<String> tagKeysSet = new TreeSet();
         featureTags.put("tagKeys", tagKeysSet);
         Set<String> failedTagKeysSet = new TreeSet();
         featureTags.put("failedTagKeys", failedTagKeysSet);        
-        for (ScenarioResult sr : fr.getScenarioResults()) {
-            Tags tags = sr.getScenario().getTagsEffective();
-            allTagKeys.addAll(tags.getTagKeys());
-            tagKeysSet.addAll(tags.getTagKeys());
-            if (sr.isFailed()) {
-                failedTagKeys.addAll(tags.getTagKeys());
-                failedTagKeysSet.addAll(tags.getTagKeys());
+        for (FeatureSummary.ScenarioSummary sr : fs.scenarios) {
+            allTagKeys.addAll(sr.tagKeys);
+            tagKeysSet.addAll(sr.tagKeys);
+            if (sr.failed) {
+                failedTagKeys.addAll(sr.tagKeys);
+                failedTagKeysSet.addAll(sr.tagKeys);
             }
         }
     }
@@ -47,8 +47,12 @@ public class TimelineResults {
     private int id;
 
     public void addFeatureResult(FeatureResult fr) {
-        fr.getScenarioResults().stream().forEach(sr -> {
-            String threadName = sr.getExecutorName();
+        addFeatureSummary(new FeatureSummary(fr));
+    }
+
+    public void addFeatureSummary(FeatureSummary fs) {
+        fs.scenarios.forEach(sr -> {
+            String threadName = sr.executorName;
             Integer groupId = groupsMap.get(threadName);
             if (groupId == null) {
                 groupId = groupsMap.size() + 1;
@@ -58,23 +62,21 @@ public class TimelineResults {
             items.add(item);
             item.put("id", ++id);
             item.put("group", groupId);
-            Scenario s = sr.getScenario();
-            String featureName = s.getFeature().getResource().getFileNameWithoutExtension();
-            String content = featureName + s.getRefId();
+            String content = sr.label;
             item.put("content", content);
-            long startTime = sr.getStartTime();
+            long startTime = sr.startTime;
             item.put("start", startTime);
-            long endTime = sr.getEndTime() - 1; // avoid overlap when rendering
+            long endTime = sr.endTime - 1; // avoid overlap when rendering
             item.put("end", endTime);
             String startTimeString = dateFormat.format(new Date(startTime));
             String endTimeString = dateFormat.format(new Date(endTime));
             content = content + " " + startTimeString + "-" + endTimeString;
-            String scenarioTitle = StringUtils.trimToEmpty(s.getName());
+            String scenarioTitle = StringUtils.trimToEmpty(sr.name);
             if (!scenarioTitle.isEmpty()) {
                 content = content + " " + scenarioTitle;
             }
             item.put("title", content);
-            if (sr.isFailed()) {
+            if (sr.failed) {
                 item.put("className", "failed");
             }
         });
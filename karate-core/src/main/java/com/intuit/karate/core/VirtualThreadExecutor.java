@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.core;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * starts a new virtual thread (jdk 21+) per task, and a semaphore limits how
+ * many tasks run at the same time, so thousands of tasks blocked on i/o do
+ * not need as many platform threads. the virtual thread api is looked up via
+ * reflection because karate still compiles against java 11
+ *
+ * @author pthomas3
+ */
+public class VirtualThreadExecutor extends AbstractExecutorService {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecutor.class);
+
+    private static final ThreadFactory FACTORY = createFactory();
+
+    private static ThreadFactory createFactory() {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class ofVirtual = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            builder = ofVirtual.getMethod("name", String.class, long.class).invoke(builder, "karate-virtual-", 0L);
+            Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+            return (ThreadFactory) factory.invoke(builder);
+        } catch (Throwable t) {
+            logger.trace("virtual threads not supported: {}", t + "");
+            return null;
+        }
+    }
+
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    public static ThreadFactory factory() {
+        return FACTORY;
+    }
+
+    private final Semaphore permits;
+    private final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    private volatile boolean shutdown;
+
+    public VirtualThreadExecutor(int threadCount) {
+        if (FACTORY == null) {
+            throw new RuntimeException("virtual threads need java 21 or later, current version: " + System.getProperty("java.version"));
+        }
+        permits = new Semaphore(threadCount, true);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (shutdown) {
+            throw new RejectedExecutionException("executor has been shut down");
+        }
+        Thread thread = FACTORY.newThread(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                threads.remove(Thread.currentThread());
+                return;
+            }
+            try {
+                command.run();
+            } finally {
+                permits.release();
+                threads.remove(Thread.currentThread());
+            }
+        });
+        threads.add(thread);
+        thread.start();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown = true;
+        threads.forEach(Thread::interrupt);
+        return new ArrayList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return shutdown && threads.isEmpty();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread thread : threads) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remaining <= 0) {
+                return isTerminated();
+            }
+            thread.join(remaining);
+        }
+        return isTerminated();
+    }
+
+}
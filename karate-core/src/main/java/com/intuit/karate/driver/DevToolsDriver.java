@@ -50,6 +50,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 import java.util.function.Predicate;
 
 import com.jayway.jsonpath.PathNotFoundException;
@@ -85,10 +89,11 @@ public abstract class DevToolsDriver implements Driver {
 
     protected String currentDialogText;
 
-    private int nextId;
+    // multiple commands can be in flight, see DevToolsWait
+    private final AtomicInteger nextId = new AtomicInteger();
 
     public int nextId() {
-        return ++nextId;
+        return nextId.incrementAndGet();
     }
 
     private MockHandler mockHandler;
@@ -127,6 +132,17 @@ public abstract class DevToolsDriver implements Driver {
         client = new WebSocketClient(wsOptions, logger);
     }
 
+    // not connected to a browser, for e.g. a stub that answers send() by calling receive()
+    protected DevToolsDriver(DriverOptions options, String rootFrameId) {
+        logger = options.driverLogger;
+        this.options = options;
+        this.command = null;
+        this.client = null;
+        this.wait = new DevToolsWait(this, options);
+        this.rootFrameId = rootFrameId;
+        mainFrameId = rootFrameId;
+    }
+
     @Override
     public Driver timeout(Integer millis) {
         options.setTimeout(millis);
@@ -155,6 +171,18 @@ public abstract class DevToolsDriver implements Driver {
         client.send(json);
     }
 
+    public CompletableFuture<DevToolsMessage> sendAsync(DevToolsMessage dtm) {
+        return wait.sendAsync(dtm, null);
+    }
+
+    public void addListener(Consumer<DevToolsMessage> listener) {
+        wait.addListener(listener);
+    }
+
+    public void removeListener(Consumer<DevToolsMessage> listener) {
+        wait.removeListener(listener);
+    }
+
     public DevToolsMessage sendAndWait(DevToolsMessage dtm, Predicate<DevToolsMessage> condition) {
         boolean wasSubmit = submit;
         if (condition == null && submit) {
@@ -187,7 +215,7 @@ public abstract class DevToolsDriver implements Driver {
         if (dtm.methodIs("Page.javascriptDialogOpening")) {
             currentDialogText = dtm.getParam("message");
             // this will stop waiting NOW
-            wait.setCondition(DevToolsWait.DIALOG_OPENING);
+            wait.completeAll(dtm);
         }
         if (dtm.methodIs("Page.frameStartedLoading")) {
             String frameLoadingId = dtm.getParam("frameId");
@@ -758,6 +786,20 @@ public abstract class DevToolsDriver implements Driver {
         return dtm.getResult().getAsString();
     }
 
+    @Override
+    public List<String> attributes(List<String> locators, String name) {
+        List<String> expressions = new ArrayList(locators.size());
+        for (String locator : locators) {
+            expressions.add(DriverOptions.selector(locator) + ".getAttribute('" + name + "')");
+        }
+        List values = evalAll(expressions, i -> attribute(locators.get(i), name));
+        List<String> list = new ArrayList(values.size());
+        for (Object value : values) {
+            list.add(value == null ? null : value.toString());
+        }
+        return list;
+    }
+
     @Override
     public String property(String id, String name) {
         retryIfEnabled(id);
@@ -789,6 +831,45 @@ public abstract class DevToolsDriver implements Driver {
         return eval(expression).getResult().getValue();
     }
 
+    @Override
+    public List scripts(List<String> locators, String expression) {
+        List<String> expressions = new ArrayList(locators.size());
+        for (String locator : locators) {
+            expressions.add(options.scriptSelector(locator, expression));
+        }
+        return evalAll(expressions, i -> script(locators.get(i), expression));
+    }
+
+    // all evaluations are sent before waiting for any reply, so the cost is
+    // one round-trip instead of one per expression
+    private List evalAll(List<String> expressions, IntFunction<Object> fallback) {
+        int count = expressions.size();
+        List<DevToolsMessage> sent = new ArrayList(count);
+        List<CompletableFuture<DevToolsMessage>> futures = new ArrayList(count);
+        Integer contextId = getFrameContext();
+        for (String expression : expressions) {
+            DevToolsMessage dtm = method("Runtime.evaluate")
+                    .param("expression", expression)
+                    .param("returnByValue", true);
+            if (contextId != null) {
+                dtm.param("contextId", contextId);
+            }
+            sent.add(dtm);
+            futures.add(wait.sendAsync(dtm, null));
+        }
+        List list = new ArrayList(count);
+        for (int i = 0; i < count; i++) {
+            DevToolsMessage dtm = wait.await(sent.get(i), futures.get(i));
+            if (dtm == null || dtm.isResultError()) {
+                // one at a time, with the usual retry and error handling
+                list.add(fallback.apply(i));
+            } else {
+                list.add(dtm.getResult().getValue());
+            }
+        }
+        return list;
+    }
+
     @Override
     public String getTitle() {
         return eval("document.title").getResult().getAsString();
@@ -24,9 +24,20 @@
 package com.intuit.karate.driver;
 
 import com.intuit.karate.Logger;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 /**
+ * multiplexes replies and events coming back over the devtools web-socket, so
+ * that many commands can be in flight at the same time
  *
  * @author pthomas3
  */
@@ -35,12 +46,13 @@ public class DevToolsWait {
     private final DriverOptions options;
     private final DevToolsDriver driver;
 
-    private DevToolsMessage lastSent;
-    private Predicate<DevToolsMessage> condition;
-    private DevToolsMessage lastReceived;
+    // replies keyed by message id
+    private final Map<Integer, CompletableFuture<DevToolsMessage>> pending = new ConcurrentHashMap();
+    // one-shot waits for an event, e.g. page load
+    private final Map<CompletableFuture<DevToolsMessage>, Predicate<DevToolsMessage>> waiters = new ConcurrentHashMap();
+    // long-lived subscriptions
+    private final List<Consumer<DevToolsMessage>> listeners = new CopyOnWriteArrayList();
 
-    private final Predicate<DevToolsMessage> DEFAULT = m -> lastSent.getId().equals(m.getId());
-    
     public static final Predicate<DevToolsMessage> FRAME_RESIZED = forEvent("Page.frameResized");
     public static final Predicate<DevToolsMessage> INSPECTOR_DETACHED = forEvent("Inspector.detached");
     public static final Predicate<DevToolsMessage> DIALOG_OPENING = forEvent("Page.javascriptDialogOpening");
@@ -89,47 +101,100 @@ public class DevToolsWait {
         this.logger = logger;
     }
 
-    public void setCondition(Predicate<DevToolsMessage> condition) {
-        this.condition = condition;
+    public void addListener(Consumer<DevToolsMessage> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<DevToolsMessage> listener) {
+        listeners.remove(listener);
+    }
+
+    public int getPendingCount() {
+        return pending.size() + waiters.size();
+    }
+
+    public CompletableFuture<DevToolsMessage> sendAsync(DevToolsMessage dtm, Predicate<DevToolsMessage> condition) {
+        CompletableFuture<DevToolsMessage> future = new CompletableFuture();
+        // register before sending to avoid missing a fast reply
+        if (condition == null) {
+            pending.put(dtm.getId(), future);
+        } else {
+            waiters.put(future, condition);
+        }
+        logger.trace(">> wait: {}", dtm);
+        try {
+            driver.send(dtm);
+        } catch (Exception e) {
+            forget(dtm, future);
+            future.completeExceptionally(e);
+        }
+        return future;
     }
 
     public DevToolsMessage send(DevToolsMessage dtm, Predicate<DevToolsMessage> condition) {
-        lastReceived = null;
-        lastSent = dtm;
-        this.condition = condition == null ? DEFAULT : condition;        
+        return await(dtm, sendAsync(dtm, condition));
+    }
+
+    public DevToolsMessage await(DevToolsMessage dtm, CompletableFuture<DevToolsMessage> future) {
         long timeout = dtm.getTimeout() == null ? options.getTimeout() : dtm.getTimeout();
-        synchronized (this) {
-            logger.trace(">> wait: {}", dtm);
-            try {
-                driver.send(dtm);
-                wait(timeout);
-            } catch (InterruptedException e) {
-                logger.error("interrupted: {} wait: {}", e.getMessage(), dtm);
-            }
-        }
-        if (lastReceived != null) {
+        try {
+            DevToolsMessage result = future.get(timeout, TimeUnit.MILLISECONDS);
             logger.trace("<< notified: {}", dtm);
-        } else {
+            return result;
+        } catch (TimeoutException e) {
             logger.error("<< timed out after milliseconds: {} - {}", timeout, dtm);
-            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("interrupted: {} wait: {}", e.getMessage(), dtm);
+        } catch (ExecutionException e) {
+            logger.error("failed: {} wait: {}", e.getCause().getMessage(), dtm);
+        } finally {
+            forget(dtm, future);
         }
-        return lastReceived;
+        return null;
+    }
+
+    private void forget(DevToolsMessage dtm, CompletableFuture<DevToolsMessage> future) {
+        pending.remove(dtm.getId(), future);
+        waiters.remove(future);
+    }
+
+    // e.g. a dialog blocks the page, so stop everything waiting NOW
+    public void completeAll(DevToolsMessage dtm) {
+        pending.values().forEach(f -> f.complete(dtm));
+        waiters.keySet().forEach(f -> f.complete(dtm));
     }
 
     public void receive(DevToolsMessage dtm) {
-        synchronized (this) {
-            if (condition.test(dtm)) {
+        boolean notified = false;
+        Integer id = dtm.getId();
+        if (id != null) {
+            CompletableFuture<DevToolsMessage> future = pending.remove(id);
+            if (future != null) {
                 if (dtm.isResultError()) {
                     logger.warn("devtools error: {}", dtm);
-                } else {
-                    logger.trace("<< notify: {}", dtm);
-                }                
-                lastReceived = dtm;
-                notify();
-            } else {
-                logger.trace("<< ignore: {}", dtm);
+                }
+                notified = future.complete(dtm);
             }
         }
+        for (Map.Entry<CompletableFuture<DevToolsMessage>, Predicate<DevToolsMessage>> entry : waiters.entrySet()) {
+            if (entry.getValue().test(dtm)) {
+                waiters.remove(entry.getKey());
+                notified = entry.getKey().complete(dtm) || notified;
+            }
+        }
+        for (Consumer<DevToolsMessage> listener : listeners) {
+            try {
+                listener.accept(dtm);
+            } catch (Exception e) {
+                logger.warn("devtools listener failed: {}", e.getMessage());
+            }
+        }
+        if (notified) {
+            logger.trace("<< notify: {}", dtm);
+        } else {
+            logger.trace("<< ignore: {}", dtm);
+        }
     }
 
 }
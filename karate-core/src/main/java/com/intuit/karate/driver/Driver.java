@@ -464,6 +464,23 @@ public interface Driver extends Plugin {
     @AutoDef
     public byte[] pdf(Map<String, Object> options);
 
+    // batch reads, drivers that can have many commands in flight override these
+    default List scripts(List<String> locators, String expression) {
+        List list = new ArrayList(locators.size());
+        for (String locator : locators) {
+            list.add(script(locator, expression));
+        }
+        return list;
+    }
+
+    default List<String> attributes(List<String> locators, String name) {
+        List<String> list = new ArrayList(locators.size());
+        for (String locator : locators) {
+            list.add(attribute(locator, name));
+        }
+        return list;
+    }
+
     // for internal use ========================================================
     //        
     boolean isTerminated();
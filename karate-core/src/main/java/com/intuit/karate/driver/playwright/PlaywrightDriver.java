@@ -51,6 +51,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 
 /**
@@ -74,22 +76,27 @@ public class PlaywrightDriver implements Driver {
     private String browserGuid;
     private String browserContextGuid;
 
-    private final Object LOCK = new Object();
+    private final ReentrantLock LOCK = new ReentrantLock();
+    private final Condition proceed = LOCK.newCondition();
 
     private void lockAndWait() {
-        synchronized (LOCK) {
-            try {
-                LOCK.wait();
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
+        LOCK.lock();
+        try {
+            proceed.await();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            LOCK.unlock();
         }
     }
 
     protected void unlockAndProceed() {
         initialized = true;
-        synchronized (LOCK) {
-            LOCK.notify();
+        LOCK.lock();
+        try {
+            proceed.signal();
+        } finally {
+            LOCK.unlock();
         }
     }
 
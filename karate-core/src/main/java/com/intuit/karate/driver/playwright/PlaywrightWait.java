@@ -25,6 +25,9 @@ package com.intuit.karate.driver.playwright;
 
 import com.intuit.karate.Logger;
 import com.intuit.karate.driver.DriverOptions;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Predicate;
 
 /**
@@ -40,6 +43,10 @@ public class PlaywrightWait {
     private Predicate<PlaywrightMessage> condition;
     private PlaywrightMessage lastReceived;
 
+    // not synchronized + wait / notify, which would pin a virtual thread while waiting
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition received = lock.newCondition();
+
     private final Predicate<PlaywrightMessage> DEFAULT = m -> lastSent.getId().equals(m.getId());
     
     public static final Predicate<PlaywrightMessage> DOM_CONTENT_LOADED = m -> m.methodIs("domcontentloaded");
@@ -62,14 +69,15 @@ public class PlaywrightWait {
         lastSent = pwm;
         this.condition = condition == null ? DEFAULT : condition;        
         long timeout = pwm.getTimeout() == null ? options.getTimeout() : pwm.getTimeout();
-        synchronized (this) {
+        lock.lock();
+        try {
             logger.trace(">> wait: {}", pwm);
-            try {
-                driver.send(pwm);
-                wait(timeout);
-            } catch (InterruptedException e) {
-                logger.error("interrupted: {} wait: {}", e.getMessage(), pwm);
-            }
+            driver.send(pwm);
+            received.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            logger.error("interrupted: {} wait: {}", e.getMessage(), pwm);
+        } finally {
+            lock.unlock();
         }
         if (lastReceived != null) {
             logger.trace("<< notified: {}", pwm);
@@ -84,7 +92,8 @@ public class PlaywrightWait {
         if (condition == null) {
             return;
         }
-        synchronized (this) {
+        lock.lock();
+        try {
             if (condition.test(pwm)) {   
                 if (pwm.isError()) {
                     logger.warn("playwright error: {}", pwm);
@@ -92,10 +101,12 @@ public class PlaywrightWait {
                     logger.trace("<< notify: {}", pwm);
                 }
                 lastReceived = pwm;
-                notify();
+                received.signal();
             } else {
                 logger.trace("<< ignore: {}", pwm);
             }
+        } finally {
+            lock.unlock();
         }
     }    
 
@@ -29,6 +29,7 @@ import com.intuit.karate.StringUtils;
 import java.io.File;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -37,6 +38,7 @@ import java.util.Set;
 import java.util.function.Function;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.slf4j.Logger;
@@ -59,26 +61,52 @@ public class JsEngine {
     private static final String TRUE = "true";
     private static final String FALSE = "false";
 
+    // one engine for the whole process, so that parsed and compiled code is shared by every context on every thread
+    private static final Engine ENGINE = Engine.newBuilder()
+            .option(ENGINE_WARN_INTERPRETER_ONLY, FALSE)
+            .build();
+
+    private static final int SOURCE_CACHE_SIZE = 1000;
+    private static final int SOURCE_CACHE_MAX_LENGTH = 16384; // large one-off payloads are not worth caching
+
+    private static final Map<String, Source> SOURCE_CACHE = Collections.synchronizedMap(new LinkedHashMap<String, Source>(SOURCE_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Source> eldest) {
+            return size() > SOURCE_CACHE_SIZE;
+        }
+    });
+
     private static final ThreadLocal<JsEngine> GLOBAL_JS_ENGINE = new ThreadLocal<JsEngine>() {
         @Override
         protected JsEngine initialValue() {
-            return new JsEngine(createContext(null));
+            return new JsEngine(createContext());
         }
     };
 
-    private static Context createContext(Engine engine) {
-        if (engine == null) {
-            engine = Engine.newBuilder()
-                    .option(ENGINE_WARN_INTERPRETER_ONLY, FALSE)
-                    .build();
-        }
+    private static Context createContext() {
         return Context.newBuilder(JS)
                 .allowExperimentalOptions(true)
                 .allowAllAccess(true)
                 .option(JS_NASHORN_COMPAT, TRUE)
                 .option(JS_ECMASCRIPT_VERSION, V_2021)
                 .option(JS_FOREIGN_OBJECT_PROTOTYPE, TRUE)
-                .engine(engine).build();
+                .engine(ENGINE).build();
+    }
+
+    public static Source toSource(String exp) {
+        if (exp.length() > SOURCE_CACHE_MAX_LENGTH) {
+            return Source.create(JS, exp);
+        }
+        Source source = SOURCE_CACHE.get(exp);
+        if (source == null) {
+            source = Source.create(JS, exp);
+            SOURCE_CACHE.put(exp, source);
+        }
+        return source;
+    }
+
+    public static Source toSource(String name, String exp) {
+        return Source.newBuilder(JS, exp, name).buildLiteral();
     }
 
     public static JsValue evalGlobal(String src) {
@@ -97,9 +125,12 @@ public class JsEngine {
         GLOBAL_JS_ENGINE.remove();
     }
 
+    public static void set(JsEngine je) {
+        GLOBAL_JS_ENGINE.set(je);
+    }
+
     public static JsEngine local() {
-        Engine engine = GLOBAL_JS_ENGINE.get().context.getEngine();
-        return new JsEngine(createContext(engine));
+        return new JsEngine(createContext());
     }
 
     //==========================================================================
@@ -112,6 +143,36 @@ public class JsEngine {
         bindings = context.getBindings(JS);
     }
 
+    private static final String CLEAR_GLOBAL = "(function(k){ if (!Object.prototype.hasOwnProperty.call(globalThis, k)) return false; globalThis[k] = undefined; return true })";
+
+    // returns false if the context could not be cleaned, a top-level var or
+    // function cannot be removed but can be cleared, let and const cannot
+    // because they would fail when re-declared
+    public boolean reset() {
+        boolean clean = true;
+        Value clearGlobal = null;
+        for (String key : bindings.getMemberKeys()) {
+            try {
+                if (bindings.removeMember(key)) {
+                    continue;
+                }
+            } catch (Exception e) {
+                logger.trace("cannot remove binding: {} - {}", key, e.getMessage());
+            }
+            if (clearGlobal == null) {
+                clearGlobal = evalForValue(CLEAR_GLOBAL);
+            }
+            if (!clearGlobal.execute(key).asBoolean()) {
+                clean = false;
+            }
+        }
+        return clean;
+    }
+
+    public void close() {
+        context.close();
+    }
+
     public JsEngine copy() {
         JsEngine temp = local();
         for (String key : bindings.getMemberKeys()) {
@@ -165,8 +226,12 @@ public class JsEngine {
         return new JsValue(evalForValue(exp));
     }
 
+    public JsValue eval(Source source) {
+        return new JsValue(context.eval(source));
+    }
+
     public Value evalForValue(String exp) {
-        return context.eval(JS, exp);
+        return context.eval(toSource(exp));
     }
 
     public void put(String key, Object value) {
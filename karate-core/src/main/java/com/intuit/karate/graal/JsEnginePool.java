@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.graal;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * bounded pool of js contexts, so that a server does not create (and warm up)
+ * a new context for every request. an engine is reset when released and is
+ * discarded if the reset fails, which frees up a slot for a fresh one
+ *
+ * @author pthomas3
+ */
+public class JsEnginePool {
+
+    private static final Logger logger = LoggerFactory.getLogger(JsEnginePool.class);
+
+    private static final long WAIT_POLL_MILLIS = 100;
+
+    public final int maxSize;
+
+    private final BlockingQueue<JsEngine> idle;
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong waits = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+
+    public JsEnginePool(int maxSize) {
+        if (maxSize < 1) {
+            throw new RuntimeException("pool size should be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        idle = new LinkedBlockingQueue(maxSize);
+    }
+
+    private JsEngine create() {
+        JsEngine je = JsEngine.local();
+        je.evalForValue("0"); // initialize the context before first use
+        created.incrementAndGet();
+        return je;
+    }
+
+    public JsEngine acquire() {
+        acquired.incrementAndGet();
+        long startTime = 0;
+        try {
+            while (true) {
+                JsEngine je = idle.poll();
+                if (je != null) {
+                    return je;
+                }
+                if (size.incrementAndGet() <= maxSize) {
+                    try {
+                        return create();
+                    } catch (RuntimeException e) {
+                        size.decrementAndGet();
+                        throw e;
+                    }
+                }
+                size.decrementAndGet();
+                if (startTime == 0) {
+                    startTime = System.nanoTime();
+                    waits.incrementAndGet();
+                    logger.debug("all {} js engines in use, waiting", maxSize);
+                }
+                // poll with a timeout, a discarded engine does not come back to the queue
+                je = idle.poll(WAIT_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (je != null) {
+                    return je;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while waiting for js engine");
+        } finally {
+            if (startTime != 0) {
+                waitNanos.addAndGet(System.nanoTime() - startTime);
+            }
+        }
+    }
+
+    public void release(JsEngine je) {
+        boolean clean;
+        try {
+            clean = je.reset();
+        } catch (Exception e) {
+            logger.warn("js engine reset failed: {}", e.getMessage());
+            clean = false;
+        }
+        if (clean && idle.offer(je)) {
+            return;
+        }
+        discarded.incrementAndGet();
+        size.decrementAndGet();
+        try {
+            je.close();
+        } catch (Exception e) {
+            logger.trace("js engine close failed: {}", e.getMessage());
+        }
+    }
+
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    public long getWaitCount() {
+        return waits.get();
+    }
+
+    public long getWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> map = new LinkedHashMap();
+        map.put("maxSize", maxSize);
+        map.put("size", size.get());
+        map.put("idle", idle.size());
+        map.put("acquired", acquired.get());
+        map.put("created", created.get());
+        map.put("discarded", discarded.get());
+        map.put("waits", waits.get());
+        map.put("waitMillis", getWaitMillis());
+        return map;
+    }
+
+}
@@ -24,6 +24,7 @@
 package com.intuit.karate.graal;
 
 import com.intuit.karate.core.ScenarioEngine;
+import java.util.concurrent.locks.ReentrantLock;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.proxy.ProxyExecutable;
 import org.graalvm.polyglot.proxy.ProxyInstantiable;
@@ -39,7 +40,8 @@ public abstract class JsFunction implements ProxyObject {
 
     protected static final Logger logger = LoggerFactory.getLogger(JsFunction.class);
 
-    public static final Object LOCK = new Object();
+    // not a monitor, so that a virtual thread waiting on it does not pin its carrier
+    public static final ReentrantLock LOCK = new ReentrantLock();
 
     protected final Value value;
 
@@ -95,6 +97,10 @@ public abstract class JsFunction implements ProxyObject {
             source = "(" + value.getSourceLocation().getCharacters() + ")";
         }
 
+        public String getSource() {
+            return source;
+        }
+
         public Object execute(JsEngine je, Object... args) {
             Object[] newArgs = new Object[args.length];
             for (int i = 0; i < newArgs.length; i++) {
@@ -111,8 +117,11 @@ public abstract class JsFunction implements ProxyObject {
                 newArgs[i] = JsValue.fromJava(args[i]);
             }
             if (lock) {
-                synchronized (LOCK) {
+                LOCK.lock();
+                try {
                     return new JsValue(value.execute(newArgs)).value;
+                } finally {
+                    LOCK.unlock();
                 }
             }
             ScenarioEngine se = ScenarioEngine.get();
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.graal;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.graalvm.polyglot.Value;
+
+/**
+ * read-only view over a js array, elements are converted on first access.
+ * the first write from java copies all elements into a plain list, after
+ * which the js array is no longer referenced
+ *
+ * @author pthomas3
+ */
+public class JsLazyList extends AbstractList<Object> {
+
+    private static final Object NOT_CONVERTED = new Object();
+
+    private Value original;
+    private Object[] converted;
+    private List<Object> list;
+
+    public JsLazyList(Value original) {
+        this.original = original;
+        converted = new Object[(int) original.getArraySize()];
+        Arrays.fill(converted, NOT_CONVERTED);
+    }
+
+    public boolean isMaterialized() {
+        return list != null;
+    }
+
+    private List<Object> materialize() {
+        if (list == null) {
+            List<Object> temp = new ArrayList(converted.length);
+            for (int i = 0; i < converted.length; i++) {
+                temp.add(get(i));
+            }
+            list = temp;
+            original = null;
+            converted = null;
+        }
+        return list;
+    }
+
+    @Override
+    public Object get(int index) {
+        if (list != null) {
+            return list.get(index);
+        }
+        Object value = converted[index]; // will throw if out of bounds, same as a list
+        if (value == NOT_CONVERTED) {
+            value = JsValue.toJava(original.getArrayElement(index), true);
+            converted[index] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public int size() {
+        return list == null ? converted.length : list.size();
+    }
+
+    @Override
+    public Object set(int index, Object element) {
+        return materialize().set(index, element);
+    }
+
+    @Override
+    public void add(int index, Object element) {
+        modCount++;
+        materialize().add(index, element);
+    }
+
+    @Override
+    public Object remove(int index) {
+        modCount++;
+        return materialize().remove(index);
+    }
+
+}
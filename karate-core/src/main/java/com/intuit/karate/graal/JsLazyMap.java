@@ -0,0 +1,200 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.graal;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.graalvm.polyglot.Value;
+
+/**
+ * read-only view over a js object, members are converted on first access
+ * instead of converting the whole graph up-front. the first write from java
+ * (or a full iteration) copies all members into a plain map, after which the
+ * js object is no longer referenced
+ *
+ * @author pthomas3
+ */
+public class JsLazyMap extends AbstractMap<String, Object> {
+
+    private Value original;
+    private Set<String> keys;
+    private Map<String, Object> converted;
+    private Map<String, Object> map;
+
+    public JsLazyMap(Value original) {
+        this.original = original;
+        keys = new LinkedHashSet(original.getMemberKeys());
+    }
+
+    public boolean isMaterialized() {
+        return map != null;
+    }
+
+    private Map<String, Object> materialize() {
+        if (map == null) {
+            Map<String, Object> temp = new LinkedHashMap(keys.size());
+            for (String key : keys) {
+                temp.put(key, get(key));
+            }
+            map = temp;
+            original = null;
+            keys = null;
+            converted = null;
+        }
+        return map;
+    }
+
+    @Override
+    public Object get(Object key) {
+        if (map != null) {
+            return map.get(key);
+        }
+        if (!keys.contains(key)) {
+            return null;
+        }
+        if (converted == null) {
+            converted = new HashMap();
+        } else if (converted.containsKey(key)) {
+            return converted.get(key);
+        }
+        Object value = JsValue.toJava(original.getMember((String) key), true);
+        converted.put((String) key, value);
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return map == null ? keys.contains(key) : map.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return map == null ? keys.size() : map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    // a view that behaves the same before and after materialization, removal goes
+    // through this map, and iterating does not convert any values
+    @Override
+    public Set<String> keySet() {
+        return new AbstractSet<String>() {
+
+            @Override
+            public Iterator<String> iterator() {
+                boolean lazy = map == null;
+                Iterator<String> it = lazy ? keys.iterator() : map.keySet().iterator();
+                return new Iterator<String>() {
+
+                    String current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return it.hasNext();
+                    }
+
+                    @Override
+                    public String next() {
+                        current = it.next();
+                        return current;
+                    }
+
+                    @Override
+                    public void remove() {
+                        if (current == null) {
+                            throw new IllegalStateException();
+                        }
+                        if (lazy) { // the (now stale) key set is not changed by this
+                            JsLazyMap.this.remove(current);
+                        } else {
+                            it.remove();
+                        }
+                        current = null;
+                    }
+
+                };
+            }
+
+            @Override
+            public int size() {
+                return JsLazyMap.this.size();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!containsKey(o)) {
+                    return false;
+                }
+                JsLazyMap.this.remove(o);
+                return true;
+            }
+
+            @Override
+            public void clear() {
+                JsLazyMap.this.clear();
+            }
+
+        };
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return materialize().entrySet();
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        return materialize().put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        return materialize().remove(key);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Object> m) {
+        materialize().putAll(m);
+    }
+
+    @Override
+    public void clear() {
+        materialize().clear();
+    }
+
+}
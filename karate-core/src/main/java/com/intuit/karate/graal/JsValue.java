@@ -23,9 +23,12 @@
  */
 package com.intuit.karate.graal;
 
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 import com.intuit.karate.JsonUtils;
+import com.intuit.karate.core.ScenarioEngine;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -45,6 +48,7 @@ import org.w3c.dom.Node;
 public class JsValue {
 
     private static final Logger logger = LoggerFactory.getLogger(JsValue.class);
+    private static final BranchCoverage COVERAGE = BranchCoverage.register("jsvalue", 27);
 
     public static enum Type {
         OBJECT,
@@ -62,147 +66,136 @@ public class JsValue {
     public final Type type;
 
     public JsValue(Value v) {
-        BranchDataStructure bds = new BranchDataStructure(27, "jsvalue");
-        bds.setFlag(0);
-        bds.saveFlags();
+        this(v, null);
+    }
+
+    // lazy: null means decide based on the current scenario config
+    private JsValue(Value v, Boolean lazy) {
+        COVERAGE.hit(0);
         if (v == null) { // Branch 1
-            bds.setFlag(1);
-            bds.saveFlags();
+            COVERAGE.hit(1);
             throw new RuntimeException("JsValue() constructor argument has to be not-null");
         }
         this.original = v;
         try { // Branch 2
-            bds.setFlag(2);
-            bds.saveFlags();
+            COVERAGE.hit(2);
             if (v.isNull()) { // Branch 3
-                bds.setFlag(3);
-                bds.saveFlags();
+                COVERAGE.hit(3);
                 value = null;
                 type = Type.NULL;
             } else if (v.isHostObject()) { // Branch 4
-                bds.setFlag(4);
-                bds.saveFlags();
+                COVERAGE.hit(4);
                 if (v.isMetaObject()) { // java.lang.Class ! Branch 5
-                    bds.setFlag(5);
-                    bds.saveFlags();
+                    COVERAGE.hit(5);
                     value = v; // special case, keep around as graal value
                 } else { // Branch 6
-                    bds.setFlag(6);
-                    bds.saveFlags();
+                    COVERAGE.hit(6);
                     value = v.asHostObject();
                 }
                 type = Type.OTHER;
             } else if (v.isProxyObject()) { // Branch 7
-                bds.setFlag(7);
-                bds.saveFlags();
+                COVERAGE.hit(7);
                 Object o = v.asProxyObject();
                 if (o instanceof JsXml) { // Branch 8
-                    bds.setFlag(8);
-                    bds.saveFlags();
+                    COVERAGE.hit(8);
                     value = ((JsXml) o).getNode();
                     type = Type.XML;
                 } else if (o instanceof JsMap) { // Branch 9
-                    bds.setFlag(9);
-                    bds.saveFlags();
+                    COVERAGE.hit(9);
                     value = ((JsMap) o).getMap();
                     type = Type.OBJECT;
                 } else if (o instanceof JsList) { // Branch 10
-                    bds.setFlag(10);
-                    bds.saveFlags();
+                    COVERAGE.hit(10);
                     value = ((JsList) o).getList();
                     type = Type.ARRAY;
                 } else if (o instanceof ProxyExecutable) { // Branch 11
-                    bds.setFlag(11);
-                    bds.saveFlags();
+                    COVERAGE.hit(11);
                     value = o;
                     type = Type.FUNCTION;
                 } else { // e.g. custom bridge, e.g. Request Branch 12
-                    bds.setFlag(12);
-                    bds.saveFlags();
+                    COVERAGE.hit(12);
                     value = v.as(Object.class);
                     type = Type.OTHER;
                 }
             } else if (v.hasArrayElements()) { // Branch 13
-                bds.setFlag(13);
-                bds.saveFlags();
-                int size = (int) v.getArraySize();
-                List list = new ArrayList(size);
-                for (int i = 0; i < size; i++) {
-                    Value child = v.getArrayElement(i);
-                    list.add(new JsValue(child).value);
+                COVERAGE.hit(13);
+                if (lazy == null ? isLazyEnabled() : lazy) {
+                    value = new JsLazyList(v);
+                } else {
+                    int size = (int) v.getArraySize();
+                    List list = new ArrayList(size);
+                    for (int i = 0; i < size; i++) {
+                        Value child = v.getArrayElement(i);
+                        list.add(new JsValue(child, false).value);
+                    }
+                    value = list;
                 }
-                value = list;
                 type = Type.ARRAY;
             } else if (v.hasMembers()) { // Branch 14
-                bds.setFlag(14);
-                bds.saveFlags();
+                COVERAGE.hit(14);
                 if (v.canExecute()) { // Branch 15
-                    bds.setFlag(15);
-                    bds.saveFlags();
+                    COVERAGE.hit(15);
                     if (v.canInstantiate()) { // Branch 16
-                        bds.setFlag(16);
-                        bds.saveFlags();
+                        COVERAGE.hit(16);
                         // js functions have members, can be executed and are instantiable
                         value = new JsFunction.Instantiable(v);
                     } else { // Branch 17
-                        bds.setFlag(17);
-                        bds.saveFlags();
+                        COVERAGE.hit(17);
                         // js, but anonymous / arrow function
                         value = new JsFunction.Executable(v);
                     }
                     type = Type.FUNCTION;
                 } else { // Branch 18
-                    bds.setFlag(18);
-                    bds.saveFlags();
-                    Set<String> keys = v.getMemberKeys();
-                    Map<String, Object> map = new LinkedHashMap(keys.size());
-                    for (String key : keys) {
-                        Value child = v.getMember(key);
-                        map.put(key, new JsValue(child).value);
+                    COVERAGE.hit(18);
+                    if (lazy == null ? isLazyEnabled() : lazy) {
+                        value = new JsLazyMap(v);
+                    } else {
+                        Set<String> keys = v.getMemberKeys();
+                        Map<String, Object> map = new LinkedHashMap(keys.size());
+                        for (String key : keys) {
+                            Value child = v.getMember(key);
+                            map.put(key, new JsValue(child, false).value);
+                        }
+                        value = map;
                     }
-                    value = map;
                     type = Type.OBJECT;
                 }
             } else if (v.isNumber()) { // Branch 19
-                bds.setFlag(19);
-                bds.saveFlags();
+                COVERAGE.hit(19);
                 value = v.as(Number.class);
                 type = Type.OTHER;
             } else if (v.isBoolean()) { // Branch 20
-                bds.setFlag(20);
-                bds.saveFlags();
+                COVERAGE.hit(20);
                 value = v.asBoolean();
                 type = Type.OTHER;
             } else if (v.isString()) { // Branch 21
-                bds.setFlag(21);
-                bds.saveFlags();
+                COVERAGE.hit(21);
                 value = v.asString();
                 type = Type.OTHER;
             } else { // Branch 22
-                bds.setFlag(22);
-                bds.saveFlags();
+                COVERAGE.hit(22);
                 value = v.as(Object.class);
                 if (value instanceof Function) { // Branch 23
-                    bds.setFlag(23);
-                    bds.saveFlags();
+                    COVERAGE.hit(23);
                     type = Type.FUNCTION;
                 } else { // Branch 24
-                    bds.setFlag(24);
-                    bds.saveFlags();
+                    COVERAGE.hit(24);
                     type = Type.OTHER;
                 }
             }
         } catch (Exception e) { // Branch 25
-            bds.setFlag(25);
-            bds.saveFlags();
+            COVERAGE.hit(25);
             if (logger.isTraceEnabled()) { // Branch 26
-                bds.setFlag(26);
-                bds.saveFlags();
+                COVERAGE.hit(26);
                 logger.trace("js conversion failed", e);
             }
             throw e;
         }
-        bds.saveFlags();
+    }
+
+    private static boolean isLazyEnabled() {
+        ScenarioEngine engine = ScenarioEngine.get();
+        return engine != null && engine.getConfig() != null && engine.getConfig().isLazyJsValues();
     }
 
     public <T> T getValue() {
@@ -283,6 +276,47 @@ public class JsValue {
         return new JsValue(v).getValue();
     }
 
+    protected static Object toJava(Value v, boolean lazy) {
+        return new JsValue(v, lazy).value;
+    }
+
+    public static boolean isLazy(Object o) {
+        return o instanceof JsLazyMap || o instanceof JsLazyList;
+    }
+
+    // lazy views are bound to a graal context which can be used by only one thread at a time,
+    // so use this for data that will be shared across threads, returns the same object if no views
+    public static Object detach(Object o) {
+        if (containsLazy(o, Collections.newSetFromMap(new IdentityHashMap()))) {
+            return JsonUtils.deepCopy(o);
+        }
+        return o;
+    }
+
+    private static boolean containsLazy(Object o, Set<Object> seen) {
+        if (isLazy(o)) {
+            return true;
+        }
+        if (o instanceof Map) {
+            if (seen.add(o)) {
+                for (Object v : ((Map) o).values()) {
+                    if (containsLazy(v, seen)) {
+                        return true;
+                    }
+                }
+            }
+        } else if (o instanceof List) {
+            if (seen.add(o)) {
+                for (Object v : (List) o) {
+                    if (containsLazy(v, seen)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
     public static Object unWrap(Object o) {
         if (o instanceof JsXml) {
             return ((JsXml) o).getNode();
@@ -152,40 +152,14 @@ public class ApacheHttpClient implements HttpClient, HttpRequestInterceptor {
         clientBuilder.setDefaultCookieStore(cookieStore);
         clientBuilder.setDefaultCookieSpecRegistry(LenientCookieSpec.registry());
         clientBuilder.useSystemProperties();
-        if (config.isSslEnabled()) {
-            // System.setProperty("jsse.enableSNIExtension", "false");
-            String algorithm = config.getSslAlgorithm(); // could be null
-            KeyStore trustStore = engine.getKeyStore(config.getSslTrustStore(), config.getSslTrustStorePassword(), config.getSslTrustStoreType());
-            KeyStore keyStore = engine.getKeyStore(config.getSslKeyStore(), config.getSslKeyStorePassword(), config.getSslKeyStoreType());
-            SSLContext sslContext;
-            try {
-                SSLContextBuilder builder = SSLContexts.custom()
-                        .setProtocol(algorithm); // will default to TLS if null
-                if (trustStore == null && config.isSslTrustAll()) {
-                    builder = builder.loadTrustMaterial(new TrustAllStrategy());
-                } else {
-                    if (config.isSslTrustAll()) {
-                        builder = builder.loadTrustMaterial(trustStore, new TrustSelfSignedStrategy());
-                    } else {
-                        builder = builder.loadTrustMaterial(trustStore, null); // will use system / java default
-                    }
-                }
-                if (keyStore != null) {
-                    char[] keyPassword = config.getSslKeyStorePassword() == null ? null : config.getSslKeyStorePassword().toCharArray();
-                    builder = builder.loadKeyMaterial(keyStore, keyPassword);
-                }
-                sslContext = builder.build();
-                SSLConnectionSocketFactory socketFactory;
-                if (keyStore != null) {
-                    socketFactory = new SSLConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
-                } else {
-                    socketFactory = new LenientSslConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
-                }
-                clientBuilder.setSSLSocketFactory(socketFactory);
-            } catch (Exception e) {
-                logger.error("ssl context init failed: {}", e.getMessage());
-                throw new RuntimeException(e);
-            }
+        if (config.isHttpPoolEnabled()) {
+            HttpConnectionPools pools = engine.runtime.featureRuntime.suite.httpConnectionPools;
+            clientBuilder.setConnectionManager(pools.getManager(config, () -> config.isSslEnabled()
+                    ? createSslSocketFactory(config) : SSLConnectionSocketFactory.getSystemSocketFactory()));
+            // the suite owns the pool, closing the per-request client will only release the connection
+            clientBuilder.setConnectionManagerShared(true);
+        } else if (config.isSslEnabled()) {
+            clientBuilder.setSSLSocketFactory(createSslSocketFactory(config));
         }
         RequestConfig.Builder configBuilder = RequestConfig.custom()
                 .setCookieSpec(LenientCookieSpec.KARATE)
@@ -248,6 +222,40 @@ public class ApacheHttpClient implements HttpClient, HttpRequestInterceptor {
         clientBuilder.addInterceptorLast(this);
     }
 
+    private SSLConnectionSocketFactory createSslSocketFactory(Config config) {
+        // System.setProperty("jsse.enableSNIExtension", "false");
+        String algorithm = config.getSslAlgorithm(); // could be null
+        KeyStore trustStore = engine.getKeyStore(config.getSslTrustStore(), config.getSslTrustStorePassword(), config.getSslTrustStoreType());
+        KeyStore keyStore = engine.getKeyStore(config.getSslKeyStore(), config.getSslKeyStorePassword(), config.getSslKeyStoreType());
+        SSLContext sslContext;
+        try {
+            SSLContextBuilder builder = SSLContexts.custom()
+                    .setProtocol(algorithm); // will default to TLS if null
+            if (trustStore == null && config.isSslTrustAll()) {
+                builder = builder.loadTrustMaterial(new TrustAllStrategy());
+            } else {
+                if (config.isSslTrustAll()) {
+                    builder = builder.loadTrustMaterial(trustStore, new TrustSelfSignedStrategy());
+                } else {
+                    builder = builder.loadTrustMaterial(trustStore, null); // will use system / java default
+                }
+            }
+            if (keyStore != null) {
+                char[] keyPassword = config.getSslKeyStorePassword() == null ? null : config.getSslKeyStorePassword().toCharArray();
+                builder = builder.loadKeyMaterial(keyStore, keyPassword);
+            }
+            sslContext = builder.build();
+            if (keyStore != null) {
+                return new SSLConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
+            } else {
+                return new LenientSslConnectionSocketFactory(sslContext, new NoopHostnameVerifier());
+            }
+        } catch (Exception e) {
+            logger.error("ssl context init failed: {}", e.getMessage());
+            throw new RuntimeException(e);
+        }
+    }
+
     @Override
     public void setConfig(Config config) {
         configure(config);
@@ -287,15 +295,16 @@ public class ApacheHttpClient implements HttpClient, HttpRequestInterceptor {
             request.getHeaders().forEach((k, vals) -> vals.forEach(v -> requestBuilder.addHeader(k, v)));
         }        
         CloseableHttpResponse httpResponse;
-        byte[] bytes;
+        Object body; // byte array, or spilled to disk if too big
+        int spillThreshold = getConfig().getResponseSpillThreshold();
         try (CloseableHttpClient client = clientBuilder.build()) {
             httpResponse = client.execute(requestBuilder.build());
             HttpEntity responseEntity = httpResponse.getEntity();
             if (responseEntity == null || responseEntity.getContent() == null) {
-                bytes = Constants.ZERO_BYTES;
+                body = Constants.ZERO_BYTES;
             } else {
                 InputStream is = responseEntity.getContent();
-                bytes = FileUtils.toBytes(is);
+                body = spillThreshold > 0 ? SpilledBody.read(is, spillThreshold) : FileUtils.toBytes(is);
             }
             request.setEndTime(System.currentTimeMillis());
             httpResponse.close();
@@ -341,7 +350,12 @@ public class ApacheHttpClient implements HttpClient, HttpRequestInterceptor {
         }
         headers.put(HttpConstants.HDR_SET_COOKIE, mergedCookieValues);
         cookieStore.clear();
-        Response response = new Response(statusCode, headers, bytes);
+        Response response;
+        if (body instanceof SpilledBody) {
+            response = new Response(statusCode, headers, (SpilledBody) body);
+        } else {
+            response = new Response(statusCode, headers, (byte[]) body);
+        }
         httpLogger.logResponse(getConfig(), request, response);
         return response;
     }
@@ -0,0 +1,135 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.http;
+
+import com.intuit.karate.core.Config;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * suite-wide pooled connection managers for the apache http client, keyed by
+ * the config that affects how sockets are created, so that keep-alive
+ * connections can be re-used across scenarios (cookies stay per-scenario)
+ *
+ * @author pthomas3
+ */
+public class HttpConnectionPools {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpConnectionPools.class);
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    private static class Pool {
+
+        final PoolingHttpClientConnectionManager manager;
+        final IdleConnectionEvictor evictor;
+
+        Pool(PoolingHttpClientConnectionManager manager, IdleConnectionEvictor evictor) {
+            this.manager = manager;
+            this.evictor = evictor;
+        }
+
+    }
+
+    public static String toKey(Config config) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(config.getConnectTimeout())
+                .append('|').append(config.getReadTimeout())
+                .append('|').append(config.getHttpPoolMaxTotal())
+                .append('|').append(config.getHttpPoolMaxPerRoute())
+                .append('|').append(config.getHttpPoolIdleTimeout());
+        if (config.isSslEnabled()) {
+            sb.append("|ssl|").append(config.getSslAlgorithm())
+                    .append('|').append(config.isSslTrustAll())
+                    .append('|').append(config.getSslTrustStore())
+                    .append('|').append(config.getSslTrustStoreType())
+                    .append('|').append(config.getSslTrustStorePassword())
+                    .append('|').append(config.getSslKeyStore())
+                    .append('|').append(config.getSslKeyStoreType())
+                    .append('|').append(config.getSslKeyStorePassword());
+        }
+        return sb.toString();
+    }
+
+    public PoolingHttpClientConnectionManager getManager(Config config, Supplier<SSLConnectionSocketFactory> sslFactory) {
+        String key = toKey(config);
+        Pool pool = pools.computeIfAbsent(key, k -> create(config, sslFactory.get()));
+        return pool.manager;
+    }
+
+    private static Pool create(Config config, SSLConnectionSocketFactory sslFactory) {
+        Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", sslFactory)
+                .build();
+        PoolingHttpClientConnectionManager manager = new PoolingHttpClientConnectionManager(registry);
+        manager.setMaxTotal(config.getHttpPoolMaxTotal());
+        manager.setDefaultMaxPerRoute(config.getHttpPoolMaxPerRoute());
+        manager.setDefaultSocketConfig(SocketConfig.custom().setSoTimeout(config.getReadTimeout()).build());
+        IdleConnectionEvictor evictor = null;
+        int idleTimeout = config.getHttpPoolIdleTimeout();
+        if (idleTimeout > 0) {
+            // stale check before lease avoids re-using sockets closed by the server
+            manager.setValidateAfterInactivity(Math.min(idleTimeout, 2000));
+            evictor = new IdleConnectionEvictor(manager, idleTimeout, TimeUnit.MILLISECONDS, idleTimeout, TimeUnit.MILLISECONDS);
+            evictor.start();
+        }
+        logger.debug("created http connection pool, max total: {}, max per route: {}, idle timeout: {}",
+                config.getHttpPoolMaxTotal(), config.getHttpPoolMaxPerRoute(), idleTimeout);
+        return new Pool(manager, evictor);
+    }
+
+    public PoolStats getStats(Config config) {
+        Pool pool = pools.get(toKey(config));
+        return pool == null ? null : pool.manager.getTotalStats();
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    public void close() {
+        pools.values().forEach(pool -> {
+            if (pool.evictor != null) {
+                pool.evictor.shutdown();
+            }
+            pool.manager.shutdown();
+        });
+        pools.clear();
+    }
+
+}
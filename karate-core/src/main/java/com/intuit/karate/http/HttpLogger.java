@@ -63,6 +63,8 @@ public class HttpLogger {
         });
     }
 
+    private static final int SPILLED_LOG_BYTES = 4096;
+
     private static void logBody(Config config, HttpLogModifier logModifier,
             StringBuilder sb, String uri, byte[] body, boolean request, ResourceType rt) {
         if (body == null) {
@@ -103,7 +105,7 @@ public class HttpLogger {
         String url = request.getUrl();
         HttpLogModifier logModifier = logModifier(config, url);
         String maskedUrl = logModifier == null ? url : logModifier.uri(url);
-        String rawResponse = response.getBodyAsString();
+        String rawResponse = response.isSpilled() ? response.getSpilledBody().head(SPILLED_LOG_BYTES) : response.getBodyAsString();
         if (rawResponse != null && logModifier != null) {
             rawResponse = logModifier.response(url, rawResponse);
         }
@@ -150,6 +152,9 @@ public class HttpLogger {
         ResourceType rt = response.getResourceType();
         if (rt == null || rt.isBinary()) {
             // don't log body
+        } else if (response.isSpilled()) { // too big, log only the start
+            String text = response.getSpilledBody().head(SPILLED_LOG_BYTES);
+            sb.append(responseModifier == null ? text : responseModifier.response(uri, text));
         } else {
             logBody(config, responseModifier, sb, uri, response.getBody(), false, rt);
         }
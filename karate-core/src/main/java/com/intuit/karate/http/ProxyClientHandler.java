@@ -44,6 +44,8 @@ import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.ssl.SslHandler;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import org.slf4j.Logger;
@@ -60,7 +62,8 @@ public class ProxyClientHandler extends SimpleChannelInboundHandler<FullHttpRequ
     protected final RequestFilter requestFilter;
     protected final ResponseFilter responseFilter;
     private final Map<String, ProxyRemoteHandler> REMOTE_HANDLERS = new ConcurrentHashMap();
-    private final Object LOCK = new Object();
+    private final ReentrantLock LOCK = new ReentrantLock();
+    private final Condition proceed = LOCK.newCondition();
     
     private ProxyRemoteHandler remoteHandler;
     protected Channel clientChannel;
@@ -154,14 +157,20 @@ public class ProxyClientHandler extends SimpleChannelInboundHandler<FullHttpRequ
     }
 
     private void lockAndWait() throws Exception {
-        synchronized (LOCK) {
-            LOCK.wait();
+        LOCK.lock();
+        try {
+            proceed.await();
+        } finally {
+            LOCK.unlock();
         }
     }
 
     protected void unlockAndProceed() {
-        synchronized (LOCK) {
-            LOCK.notify();
+        LOCK.lock();
+        try {
+            proceed.signal();
+        } finally {
+            LOCK.unlock();
         }
     }
 
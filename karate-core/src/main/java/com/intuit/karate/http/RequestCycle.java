@@ -24,6 +24,7 @@
 package com.intuit.karate.http;
 
 import com.intuit.karate.graal.JsEngine;
+import com.intuit.karate.graal.JsEnginePool;
 import com.intuit.karate.graal.JsValue;
 import com.intuit.karate.resource.ResourceResolver;
 import com.intuit.karate.template.KarateTemplateEngine;
@@ -55,12 +56,31 @@ public class RequestCycle {
     }
 
     protected static RequestCycle init(KarateTemplateEngine te, ServerContext context) {
-        RequestCycle rc = new RequestCycle(JsEngine.global(), te, context);
+        JsEnginePool pool = context.getConfig().getJsEnginePool();
+        JsEngine engine;
+        if (pool == null) {
+            engine = JsEngine.global();
+        } else {
+            engine = pool.acquire();
+            // so that JsEngine.global() calls during this request see the same engine
+            JsEngine.set(engine);
+        }
+        RequestCycle rc;
+        try {
+            rc = new RequestCycle(engine, pool, te, context);
+        } catch (RuntimeException e) {
+            if (pool != null) { // close() will never be called
+                JsEngine.remove();
+                pool.release(engine);
+            }
+            throw e;
+        }
         THREAD_LOCAL.set(rc);
         return rc;
     }
 
     private final JsEngine engine;
+    private final JsEnginePool pool;
     private final KarateTemplateEngine templateEngine;
     private final Request request;
     private final Response response;
@@ -71,8 +91,9 @@ public class RequestCycle {
     private String switchTemplate;
     private Map<String, Object> switchParams;
 
-    private RequestCycle(JsEngine engine, KarateTemplateEngine templateEngine, ServerContext context) {
+    private RequestCycle(JsEngine engine, JsEnginePool pool, KarateTemplateEngine templateEngine, ServerContext context) {
         this.engine = engine;
+        this.pool = pool;
         this.templateEngine = templateEngine;
         this.context = context;
         config = context.getConfig();
@@ -101,7 +122,7 @@ public class RequestCycle {
     public RequestCycle copy(Request request, Map<String, Object> variables) {
         ServerContext temp = new ServerContext(config, request, variables);
         temp.setSession(context.getSession());
-        return new RequestCycle(JsEngine.local(), templateEngine, temp);
+        return new RequestCycle(JsEngine.local(), null, templateEngine, temp);
     }
 
     public JsEngine getEngine() {
@@ -135,6 +156,9 @@ public class RequestCycle {
         }
         JsEngine.remove();
         THREAD_LOCAL.remove();
+        if (pool != null) {
+            pool.release(engine); // will clear session, request, response, context etc.
+        }
     }
 
     public Session getSession() {
@@ -32,6 +32,8 @@ import com.intuit.karate.graal.JsValue;
 import com.intuit.karate.graal.Methods;
 import io.netty.handler.codec.http.cookie.ClientCookieDecoder;
 import io.netty.handler.codec.http.cookie.Cookie;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -90,6 +92,13 @@ public class Response implements ProxyObject {
         this.resourceType = resourceType;
     }
 
+    // for a large body that was streamed to disk instead of memory
+    public Response(int status, Map<String, List<String>> headers, SpilledBody body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+
     public int getStatus() {
         return status;
     }
@@ -144,9 +153,30 @@ public class Response implements ProxyObject {
         if (body instanceof byte[]) {
             return (byte[]) body;
         }
+        if (body instanceof SpilledBody) { // read from disk every time, so don't call this in a loop
+            return ((SpilledBody) body).toBytes();
+        }
         return JsonUtils.toBytes(body);
     }
 
+    public boolean isSpilled() {
+        return body instanceof SpilledBody;
+    }
+
+    public SpilledBody getSpilledBody() {
+        return body instanceof SpilledBody ? (SpilledBody) body : null;
+    }
+
+    public InputStream getBodyStream() {
+        if (body == null) {
+            return null;
+        }
+        if (body instanceof SpilledBody) {
+            return ((SpilledBody) body).openStream();
+        }
+        return new ByteArrayInputStream(getBody());
+    }
+
     public void setBody(byte[] body) {
         this.body = body;
     }
@@ -160,6 +190,9 @@ public class Response implements ProxyObject {
     }
 
     public Object getBodyConverted() {
+        if (body instanceof SpilledBody) {
+            return ((SpilledBody) body).convert(false, getResourceType());
+        }
         if (body instanceof byte[]) {
             ResourceType rt = getResourceType(); // derive if needed
             if (rt != null && rt.isBinary()) {
@@ -258,7 +291,7 @@ public class Response implements ProxyObject {
             case HEADERS:
                 return JsValue.fromJava(JsonUtils.simplify(headers));
             case BODY:
-                if (body instanceof byte[]) {
+                if (body instanceof byte[] || body instanceof SpilledBody) {
                     return JsValue.fromJava(getBodyConverted());
                 } else {
                     return JsValue.fromJava(body);
@@ -326,6 +359,8 @@ public class Response implements ProxyObject {
         }
         if (body instanceof byte[]) {
             sb.append(", length: ").append(((byte[]) body).length);
+        } else if (body instanceof SpilledBody) {
+            sb.append(", length: ").append(((SpilledBody) body).length);
         }
         if (headers != null) {
             sb.append(", headers: ").append(headers);
@@ -25,6 +25,7 @@ package com.intuit.karate.http;
 
 import com.intuit.karate.Logger;
 import com.intuit.karate.core.Config;
+import com.intuit.karate.graal.JsEnginePool;
 import com.intuit.karate.resource.ResourceResolver;
 import com.linecorp.armeria.common.RequestContext;
 import java.util.HashMap;
@@ -50,6 +51,10 @@ public class ServerConfig {
     private boolean devMode;
     private SessionStore sessionStore = JvmSessionStore.INSTANCE;
     private int sessionExpirySeconds = 60 * 10;
+    // 0 (off) means each thread uses its own js engine, a pool is typically
+    // as big as the armeria event-loop count: 2 x the number of processors
+    private int jsEnginePoolSize;
+    private volatile JsEnginePool jsEnginePool;
 
     public static final Session GLOBAL_SESSION = new Session("-1", new HashMap(), -1, -1, -1);
 
@@ -133,6 +138,25 @@ public class ServerConfig {
         return sessionStore;
     }
 
+    public int getJsEnginePoolSize() {
+        return jsEnginePoolSize;
+    }
+
+    // called for every request, so only the first one takes the lock
+    public JsEnginePool getJsEnginePool() {
+        JsEnginePool pool = jsEnginePool;
+        if (pool == null && jsEnginePoolSize > 0) {
+            synchronized (this) {
+                pool = jsEnginePool;
+                if (pool == null) {
+                    pool = new JsEnginePool(jsEnginePoolSize);
+                    jsEnginePool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
     public Function<Request, ServerContext> getContextFactory() {
         return contextFactory;
     }
@@ -207,6 +231,12 @@ public class ServerConfig {
         return this;
     }
 
+    public synchronized ServerConfig jsEnginePoolSize(int value) {
+        jsEnginePoolSize = value;
+        jsEnginePool = null;
+        return this;
+    }
+
     public ServerConfig contextFactory(Function<Request, ServerContext> value) {
         contextFactory = value;
         return this;
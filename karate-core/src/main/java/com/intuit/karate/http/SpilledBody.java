@@ -0,0 +1,251 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.http;
+
+import com.intuit.karate.FileUtils;
+import com.intuit.karate.XmlUtils;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import net.minidev.json.parser.JSONParser;
+import static net.minidev.json.JSONValue.defaultReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * a response body that was too big to keep in memory, and was streamed to a
+ * temp file instead, see configure responseSpillThreshold - the scenario
+ * deletes the file when it ends, since variables may still refer to it, and
+ * the files are in the build dir so that a killed run does not leave them in
+ * the system temp dir
+ *
+ * @author pthomas3
+ */
+public class SpilledBody {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpilledBody.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public final File file;
+    public final long length;
+
+    private SpilledBody(File file, long length) {
+        this.file = file;
+        this.length = length;
+    }
+
+    // returns a byte array if the stream ends within the threshold, else a spilled body
+    public static Object read(InputStream is, int threshold) throws IOException {
+        ByteArrayOutputStream head = new ByteArrayOutputStream(Math.min(threshold, BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int count;
+        while ((count = is.read(buffer)) != -1) {
+            head.write(buffer, 0, count);
+            if (head.size() > threshold) {
+                File dir = new File(FileUtils.getBuildDir() + File.separator + "karate-spill");
+                dir.mkdirs();
+                File file = File.createTempFile("response-", ".tmp", dir);
+                long length = head.size();
+                try (OutputStream os = new FileOutputStream(file)) {
+                    head.writeTo(os);
+                    head = null; // free the in-memory part before the rest is copied
+                    while ((count = is.read(buffer)) != -1) {
+                        os.write(buffer, 0, count);
+                        length += count;
+                    }
+                }
+                logger.debug("response body of {} bytes streamed to: {}", length, file);
+                return new SpilledBody(file, length);
+            }
+        }
+        return head.toByteArray();
+    }
+
+    public byte[] toBytes() {
+        if (length > Integer.MAX_VALUE) {
+            throw new RuntimeException("response body too big for a byte array: " + length + ", use responseStream instead");
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            byte[] bytes = new byte[(int) length];
+            mapped.get(bytes);
+            return bytes;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // the file is only opened when first read, so an unused stream holds no file handle
+    public InputStream openStream() {
+        return new InputStream() {
+
+            private InputStream delegate;
+
+            private InputStream delegate() throws IOException {
+                if (delegate == null) {
+                    delegate = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+                }
+                return delegate;
+            }
+
+            @Override
+            public int read() throws IOException {
+                return delegate().read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                return delegate().read(b, off, len);
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                return delegate().skip(n);
+            }
+
+            @Override
+            public int available() throws IOException {
+                return delegate == null ? 0 : delegate.available();
+            }
+
+            @Override
+            public void close() throws IOException {
+                if (delegate != null) {
+                    delegate.close();
+                }
+            }
+
+        };
+    }
+
+    // for logs and error messages, which should not build a string of the whole body
+    public String head(int maxBytes) {
+        int size = (int) Math.min(maxBytes, length);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(size);
+            while (buffer.hasRemaining() && channel.read(buffer) != -1) {
+                // keep reading
+            }
+            int count = buffer.position();
+            if (count < length) {
+                count = toCharBoundary(buffer.array(), count);
+            }
+            String text = new String(buffer.array(), 0, count, StandardCharsets.UTF_8);
+            return count < length ? text + "\n... [" + length + " bytes]" : text;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // drops a multi-byte utf-8 character that was cut off at the end
+    static int toCharBoundary(byte[] bytes, int count) {
+        for (int i = count - 1; i >= 0 && i >= count - 4; i--) {
+            int b = bytes[i] & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                continue; // continuation byte, keep looking for the lead byte
+            }
+            int expected = b < 0x80 ? 1 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : 2;
+            return i + expected > count ? i : count;
+        }
+        return count;
+    }
+
+    // same rules as JsonUtils.fromString() but json is parsed straight from the file
+    public Object convert(boolean strict, ResourceType resourceType) {
+        if (resourceType != null && resourceType.isBinary()) {
+            return file;
+        }
+        int first = firstNonWhitespace();
+        switch (first) {
+            case -1:
+                return FileUtils.toString(toBytes());
+            case '{':
+            case '[':
+                try (Reader reader = new InputStreamReader(openStream(), StandardCharsets.UTF_8)) {
+                    JSONParser parser = new JSONParser(strict ? JSONParser.MODE_RFC4627 : JSONParser.DEFAULT_PERMISSIVE_MODE);
+                    return parser.parse(reader, defaultReader.DEFAULT_ORDERED);
+                } catch (Exception e) {
+                    if (strict) {
+                        throw new RuntimeException(e);
+                    }
+                    logger.trace("failed to parse json: {}", e.getMessage());
+                    return FileUtils.toString(toBytes());
+                }
+            case '<':
+                String raw = FileUtils.toString(toBytes());
+                if (resourceType == null || resourceType.isXml()) {
+                    try {
+                        return XmlUtils.toXmlDoc(raw);
+                    } catch (Exception e) {
+                        logger.trace("failed to parse xml: {}", e.getMessage());
+                        if (strict) {
+                            throw e;
+                        }
+                    }
+                }
+                return raw;
+            default:
+                return FileUtils.toString(toBytes());
+        }
+    }
+
+    private int firstNonWhitespace() {
+        try (InputStream is = openStream()) {
+            int c;
+            while ((c = is.read()) != -1) {
+                if (!Character.isWhitespace(c)) {
+                    return c;
+                }
+            }
+            return -1;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public void delete() {
+        if (file.exists() && !file.delete()) {
+            logger.debug("could not delete: {}", file);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "[spilled: " + length + " bytes, " + file + "]";
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2022 Karate Labs Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.intuit.karate.report;
+
+import com.intuit.karate.core.FeatureResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * writes the reports of completed features on dedicated threads, so that
+ * the threads running scenarios can move on to the next one instead of
+ * waiting for json, html and xml files to be rendered and written. the
+ * queue is bounded, when the writers fall behind, the thread submitting a
+ * feature result blocks until there is space, so memory use stays flat
+ *
+ * @author pthomas3
+ */
+public class ReportPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportPipeline.class);
+
+    private final BlockingQueue<Object> queue;
+    private final Consumer<FeatureResult> writer;
+    private final int threadCount;
+    private final int batchSize;
+    private final List<Thread> threads;
+    private boolean started;
+    private volatile boolean closed;
+
+    // marks the end of the queue, one per writer thread
+    private static final Object POISON = new Object();
+
+    public ReportPipeline(int threadCount, int capacity, Consumer<FeatureResult> writer) {
+        queue = new ArrayBlockingQueue(capacity);
+        this.writer = writer;
+        this.threadCount = threadCount;
+        batchSize = Math.max(1, capacity / threadCount);
+        threads = new ArrayList(threadCount);
+    }
+
+    // no threads are created for a suite that never completes a feature
+    private synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        for (int i = 0; i < threadCount; i++) {
+            Thread thread = new Thread(this::drain, "karate-report-" + (i + 1));
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+    }
+
+    public void submit(FeatureResult fr) {
+        if (closed) { // edge case, for e.g. a feature that completes after a timeout
+            writer.accept(fr);
+            return;
+        }
+        start();
+        try {
+            queue.put(fr);
+            if (closed && queue.remove(fr)) { // lost the race with close()
+                writer.accept(fr);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.accept(fr);
+        }
+    }
+
+    private void drain() {
+        List<Object> batch = new ArrayList(batchSize);
+        try {
+            while (true) {
+                batch.add(queue.take());
+                // pick up whatever else is waiting, in one go
+                queue.drainTo(batch, batchSize - 1);
+                int poisonCount = 0;
+                for (Object o : batch) {
+                    if (o == POISON) {
+                        poisonCount++;
+                        continue;
+                    }
+                    try {
+                        writer.accept((FeatureResult) o);
+                    } catch (Throwable t) {
+                        logger.error("report writer failed: {}", t + "");
+                    }
+                }
+                if (poisonCount > 0) {
+                    // leave the rest for the other writer threads
+                    for (int i = 1; i < poisonCount; i++) {
+                        queue.put(POISON);
+                    }
+                    return;
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            logger.warn("report writer interrupted, {} feature(s) pending", queue.size());
+        }
+    }
+
+    // waits for everything submitted so far to be written
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!started) {
+            return;
+        }
+        try {
+            for (int i = 0; i < threads.size(); i++) {
+                queue.put(POISON);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("interrupted while waiting for report writers");
+        }
+    }
+
+}
@@ -62,6 +62,7 @@ public class Command extends Thread {
 
     private Map<String, String> environment;
     private Consumer<String> listener;
+    private Predicate<String> handler;
     private Consumer<String> errorListener;
     private boolean redirectErrorStream = true;
     private Console sysOut;
@@ -97,6 +98,11 @@ public class Command extends Thread {
         this.listener = listener;
     }
 
+    // sys-out lines for which this returns true are not logged or kept in the buffer
+    public void setHandler(Predicate<String> handler) {
+        this.handler = handler;
+    }
+
     public void setErrorListener(Consumer<String> errorListener) {
         this.errorListener = errorListener;
     }
@@ -353,9 +359,9 @@ public class Command extends Thread {
             }
             pb.redirectErrorStream(redirectErrorStream);
             process = pb.start();
-            sysOut = new Console(uniqueName + "-out", useLineFeed, process.getInputStream(), logger, appender, listener);
+            sysOut = new Console(uniqueName + "-out", useLineFeed, process.getInputStream(), logger, appender, listener, handler);
             sysOut.start();
-            sysErr = new Console(uniqueName + "-err", useLineFeed, process.getErrorStream(), logger, appender, errorListener);
+            sysErr = new Console(uniqueName + "-err", useLineFeed, process.getErrorStream(), logger, appender, errorListener, null);
             sysErr.start();
             exitCode = process.waitFor();
             if (exitCode == 0) {
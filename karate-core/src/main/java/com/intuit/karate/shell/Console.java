@@ -29,6 +29,7 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 /**
  *
@@ -43,12 +44,13 @@ public class Console extends Thread {
     private final LogAppender appender;
     private final StringBuilder buffer;
     private final Consumer<String> listener;
+    private final Predicate<String> handler;
     
     public String getBuffer() {
         return buffer.toString();
     }
 
-    public Console(String name, boolean useLineFeed, InputStream is, Logger logger, LogAppender appender, Consumer<String> listener) {
+    public Console(String name, boolean useLineFeed, InputStream is, Logger logger, LogAppender appender, Consumer<String> listener, Predicate<String> handler) {
         super(name);
         this.useLineFeed = useLineFeed;
         this.is = is;
@@ -57,6 +59,7 @@ public class Console extends Thread {
         this.logger = logger;
         this.appender = appender;
         this.listener = listener;
+        this.handler = handler;
     }
 
     @Override
@@ -64,6 +67,9 @@ public class Console extends Thread {
         String line;
         try {
             while ((line = reader.readLine()) != null) {
+                if (handler != null && handler.test(line)) {
+                    continue; // consumed, not logged or buffered
+                }
                 appender.append(line);
                 buffer.append(line);
                 logger.debug("{}", line);
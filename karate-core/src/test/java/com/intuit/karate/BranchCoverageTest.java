@@ -0,0 +1,36 @@
+package com.intuit.karate;
+
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class BranchCoverageTest {
+
+    @Test
+    void testRegisterOncePerSite() {
+        BranchCoverage coverage = BranchCoverage.register("test", 3);
+        assertSame(coverage, BranchCoverage.register("test", 3));
+        assertThrows(RuntimeException.class, () -> BranchCoverage.register("test", 4));
+    }
+
+    @Test
+    void testHitAndSnapshot() {
+        BranchCoverage coverage = BranchCoverage.register("snapshot", 2);
+        coverage.reset();
+        coverage.hit(1);
+        coverage.hit(1);
+        coverage.hit(5); // out of range is ignored
+        long expected = BranchCoverage.ENABLED ? 2 : 0;
+        assertEquals(expected, coverage.getCount(1));
+        assertEquals(0, coverage.getCount(0));
+        Map<String, Object> map = (Map) BranchCoverage.snapshot().get("snapshot");
+        assertEquals(2, map.get("branches"));
+        assertEquals(expected, ((List) map.get("hits")).get(1));
+    }
+
+}
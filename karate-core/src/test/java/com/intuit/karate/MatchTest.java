@@ -1,13 +1,19 @@
 package com.intuit.karate;
 
 import static com.intuit.karate.Match.Type.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.intuit.karate.Match.Type;
 import com.intuit.karate.graal.JsEngine;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
@@ -474,4 +480,93 @@ class MatchTest {
 
         match("{ a: null}", matchType, " { a: '##notnull' }");
     }
+
+    @Test
+    void testMacroCompiledOncePerMatch() {
+        match("[{ a: 1 }, { a: 2 }, { a: 3 }]", EACH_EQUALS, "{ a: '#? _ > 0 && _ <= $.length' }");
+        match("[{ a: 1 }, { a: 4 }]", EACH_EQUALS, "{ a: '#? _ <= $.length' }", FAILS);
+        message("evaluated to 'false'");
+        match("[1, 2, 3]", EQUALS, "#[_ > 2] #number? _ < 4");
+        // statements cannot be compiled as a single expression, and fall back to eval
+        match("{ a: 1 }", EQUALS, "{ a: '#? var x = 1; _ == x' }");
+        MatchMacro macro = MatchMacro.of("##[3] #string");
+        assertTrue(macro.optional);
+        assertTrue(macro.kind == MatchMacro.Kind.ARRAY);
+        assertTrue(macro == MatchMacro.of("##[3] #string"));
+        assertTrue(MatchMacro.of("#uuid").validator == Match.VALIDATORS.get("uuid"));
+    }
+
+    @Test
+    void testContainsLargeLists() {
+        List<Object> actual = new ArrayList();
+        List<Object> expected = new ArrayList();
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> map = new LinkedHashMap();
+            map.put("id", i);
+            map.put("name", "n" + i);
+            actual.add(map);
+            Map<String, Object> reversed = new LinkedHashMap();
+            reversed.put("name", "n" + (99 - i));
+            reversed.put("id", 99.0 - i);
+            expected.add(reversed);
+        }
+        match(actual, CONTAINS, expected);
+        match(actual, CONTAINS_ONLY, expected);
+        match(actual, CONTAINS_ANY, expected.subList(0, 20));
+        expected.set(0, Collections.singletonMap("id", 100));
+        match(actual, CONTAINS, expected, FAILS);
+        message("actual array does not contain expected item");
+        match(actual, CONTAINS_ANY, expected.subList(0, 1), FAILS);
+        match(actual, NOT_CONTAINS, expected.subList(1, 30), FAILS);
+        // duplicates are each matched once
+        List<Object> numbers = new ArrayList();
+        for (int i = 0; i < 50; i++) {
+            numbers.add(i % 25);
+        }
+        List<Object> expectedNumbers = new ArrayList(numbers);
+        Collections.reverse(expectedNumbers);
+        match(numbers, CONTAINS_ONLY, expectedNumbers);
+        expectedNumbers.set(0, 1);
+        match(numbers, CONTAINS_ONLY, expectedNumbers, FAILS);
+    }
+
+    @Test
+    void testMatchEachParallel() {
+        List<Object> list = new ArrayList();
+        for (int i = 0; i < 1000; i++) {
+            Map<String, Object> map = new LinkedHashMap();
+            map.put("id", i);
+            map.put("name", "n" + i);
+            list.add(map);
+        }
+        Object expected = Json.of("{ id: '#number', name: '#string', extra: '##array' }").value();
+        assertTrue(Match.execute(JsEngine.global(), EACH_EQUALS, list, expected, false, 100).pass);
+        ((Map) list.get(700)).put("id", "x");
+        ((Map) list.get(900)).put("name", 1);
+        Match.Result sequential = Match.execute(JsEngine.global(), EACH_EQUALS, list, expected, false, 0);
+        Match.Result parallel = Match.execute(JsEngine.global(), EACH_EQUALS, list, expected, false, 100);
+        assertFalse(parallel.pass);
+        assertEquals(sequential.message, parallel.message);
+        message = parallel.message;
+        message("match each failed at index 700");
+    }
+
+    @Test
+    void testMatchEachParallelNestedArrayMarker() {
+        List<Object> list = new ArrayList();
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Object> map = new LinkedHashMap();
+            map.put("id", i);
+            map.put("tags", Arrays.asList("a", "b"));
+            list.add(map);
+        }
+        // the nested '#[] #string' must not touch the (single-threaded) js engine
+        Object expected = Json.of("{ id: '#number', tags: '#[] #string' }").value();
+        assertTrue(Match.execute(JsEngine.global(), EACH_EQUALS, list, expected, false, 100).pass);
+        ((Map) list.get(1500)).put("tags", Arrays.asList("a", 1));
+        Match.Result parallel = Match.execute(JsEngine.global(), EACH_EQUALS, list, expected, false, 100);
+        assertFalse(parallel.pass);
+        assertEquals(Match.execute(JsEngine.global(), EACH_EQUALS, list, expected, false, 0).message, parallel.message);
+    }
+
 }
@@ -0,0 +1,91 @@
+package com.intuit.karate;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class ShardCoordinatorTest {
+
+    static final String BUILD_DIR = "target/shard-test";
+
+    @BeforeEach
+    void beforeEach() {
+        File dir = new File(BUILD_DIR);
+        if (dir.exists()) {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    static Results run(String path, int workers) {
+        Runner.Builder rb = Runner.path(path)
+                .buildDir(BUILD_DIR)
+                .backupReportDir(false)
+                .outputHtmlReport(false);
+        Main main = Main.parseKarateArgs(Arrays.asList("-T", "1"));
+        return new ShardCoordinator(rb, workers, 1, main.getWorkerArgs()).run();
+    }
+
+    @Test
+    void testWorkersMergeResultsAndShareCallSingle() {
+        Results results = run("classpath:com/intuit/karate/shard/ok", 2);
+        assertEquals(2, results.getFeaturesPassed());
+        assertEquals(2, results.getScenariosPassed());
+        assertEquals(0, results.getFailCount());
+        // the cache file lock means only one worker evaluated the callSingle
+        assertEquals("x", FileUtils.toString(new File(BUILD_DIR + "/calls.txt")));
+        // result lines are merged, but not written to the worker logs
+        for (int i = 1; i <= 2; i++) {
+            String log = FileUtils.toString(new File(BUILD_DIR + "/shard-" + i + "/worker.log"));
+            assertFalse(log.contains(ShardCoordinator.RESULT_PREFIX));
+        }
+    }
+
+    @Test
+    void testSuitesInSameJvmShareCallSingleCacheFile() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<Results>> futures = new ArrayList();
+            for (int i = 1; i <= 2; i++) {
+                String buildDir = BUILD_DIR + "/suite-" + i;
+                futures.add(executor.submit(() -> Runner.path("classpath:com/intuit/karate/shard/slow")
+                        .buildDir(buildDir)
+                        .backupReportDir(false)
+                        .outputHtmlReport(false)
+                        .parallel(1)));
+            }
+            for (Future<Results> future : futures) {
+                Results results = future.get();
+                assertEquals(0, results.getFailCount(), results.getErrorMessages());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // the second suite waited for the first instead of failing on the file lock
+        assertEquals("x", FileUtils.toString(new File(BUILD_DIR + "/calls.txt")));
+    }
+
+    @Test
+    void testWorkerExitWithoutResultFails() {
+        RuntimeException e = assertThrows(RuntimeException.class, () -> run("classpath:com/intuit/karate/shard/exit", 2));
+        assertTrue(e.getMessage().contains("worker process(es) failed: [shard-1]"));
+    }
+
+    @Test
+    void testJvmArgs() {
+        assertEquals(Arrays.asList("-Dkarate.env=qa", "-Xmx1g", "-Dfoo=bar"), ShardCoordinator.toJvmArgs(Arrays.asList(
+                "-Dkarate.env=qa", "-Xmx1g", "-agentlib:jdwp=transport=dt_socket,server=y,address=5005",
+                "-Dkarate.options=-t @smoke classpath:foo", "-Djava.class.path=foo.jar", "-Dfoo=bar")));
+    }
+
+}
@@ -264,4 +264,28 @@ class XmlUtilsTest {
         assertEquals("/bar/baz/@ban", XmlUtils.stripNameSpacePrefixes("/foo:bar/foo:baz/@ban"));
     }
 
+    @Test
+    void testReusedParsersKeepNamespaceModesApart() throws Exception {
+        String xml = "<a:foo xmlns:a=\"test\"><a:bar>baz</a:bar></a:foo>";
+        String localPath = "/*[local-name()='foo']/*[local-name()='bar']";
+        for (int i = 0; i < 3; i++) {
+            Document aware = XmlUtils.toXmlDoc(xml, true);
+            assertEquals("foo", aware.getDocumentElement().getLocalName());
+            assertEquals("test", aware.getDocumentElement().getNamespaceURI());
+            assertEquals("baz", XmlUtils.getTextValueByPath(aware, localPath));
+            Document unaware = XmlUtils.toXmlDoc(xml, false);
+            assertNull(unaware.getDocumentElement().getLocalName());
+            assertNull(unaware.getDocumentElement().getNamespaceURI());
+            assertEquals("a:foo", unaware.getDocumentElement().getNodeName());
+            assertEquals("baz", XmlUtils.getTextValueByPath(unaware, "/*/*"));
+            assertEquals("<a:foo xmlns:a=\"test\"><a:bar>baz</a:bar></a:foo>", XmlUtils.toString(unaware));
+        }
+        // each thread gets its own instances
+        String[] result = new String[1];
+        Thread thread = new Thread(() -> result[0] = XmlUtils.getTextValueByPath(XmlUtils.toXmlDoc(xml, true), localPath));
+        thread.start();
+        thread.join();
+        assertEquals("baz", result[0]);
+    }
+
 }
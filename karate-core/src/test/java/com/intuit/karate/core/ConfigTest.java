@@ -1,6 +1,6 @@
 package com.intuit.karate.core;
 
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 import com.intuit.karate.LogAppender;
 import com.intuit.karate.Logger;
 import com.intuit.karate.core.Config;
@@ -11,7 +11,6 @@ import com.intuit.karate.shell.StringLogAppender;
 import com.oracle.truffle.api.instrumentation.GenerateWrapper.Ignore;
 
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static com.intuit.karate.TestUtils.FeatureBuilder;
@@ -106,14 +105,8 @@ class ConfigTest {
 
     @Test
     void logCoverageResult() {
-        BranchDataStructure bds = new BranchDataStructure(60, "configure");
-        bds.logResults();
+        BranchCoverage coverage = BranchCoverage.register("configure", 60);
+        coverage.logResults();
     }
 
-    @Test
-    @Disabled
-    void delete_file() {
-        BranchDataStructure bds = new BranchDataStructure(60, "configure");
-        bds.delete_file();
-    }
 }
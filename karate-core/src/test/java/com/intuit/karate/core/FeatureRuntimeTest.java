@@ -1,10 +1,12 @@
 package com.intuit.karate.core;
 
+import com.intuit.karate.FileUtils;
 import com.intuit.karate.Match;
 import com.intuit.karate.Results;
 import com.intuit.karate.Runner;
 import com.intuit.karate.TestUtils;
 import com.intuit.karate.report.Report;
+import com.intuit.karate.resource.ResourceUtils;
 import com.intuit.karate.report.SuiteReports;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -224,6 +226,29 @@ class FeatureRuntimeTest {
         run("call-feature.feature");
     }
 
+    @Test
+    void testCalledFeatureIsParsedOnce() {
+        run("call-feature-cached.feature");
+        assertEquals(1, fr.suite.featureCache.getMisses());
+        assertEquals(2, fr.suite.featureCache.getHits());
+    }
+
+    @Test
+    void testCalledFeatureNameIsEvaluatedPerCall() {
+        run("call-feature-name.feature");
+        assertEquals(1, fr.suite.featureCache.getHits());
+        // the cached feature keeps the name as written
+        Feature called = fr.suite.featureCache.read(ResourceUtils.getResource(FileUtils.WORKING_DIR, "classpath:com/intuit/karate/core/call-feature-name-called.feature"));
+        assertEquals("called with ${foo}", called.getScenario(0, -1).getName());
+    }
+
+    @Test
+    void testReadCache() {
+        run("read-cache.feature");
+        assertEquals(2, fr.suite.readCache.getMisses());
+        assertEquals(6, fr.suite.readCache.getHits());
+    }
+
     @Test
     void testOutlineGenerator() {
         run("outline-generator.feature");
@@ -396,6 +421,11 @@ class FeatureRuntimeTest {
         run("sort-array.feature");
     } 
     
+    @Test
+    void testLazyJsValues() {
+        run("lazy-js-values.feature");
+    }
+
     @Test
     void testTypeConv() {
         run("type-conv.feature");
@@ -2,9 +2,13 @@ package com.intuit.karate.core;
 
 import static com.intuit.karate.TestUtils.*;
 import static com.intuit.karate.TestUtils.runScenario;
+import com.intuit.karate.http.HttpConnectionPools;
 import com.intuit.karate.http.HttpServer;
+import java.io.File;
 import java.util.List;
 import java.util.Map;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -332,6 +336,64 @@ class KarateHttpMockHandlerTest {
                 "method get"
         );
         matchVar("response", "success");
-    }    
+    }
+
+    @Test
+    void testHttpPool() {
+        background().scenario(
+                "pathMatches('/hello')",
+                "def response = 'hello world'");
+        startMockServer();
+        run(
+                "configure readTimeout = 12345",
+                "configure httpPool = { maxTotal: 10, maxPerRoute: 5 }",
+                urlStep(),
+                "path 'hello'",
+                "method get",
+                "def first = response",
+                "path 'hello'",
+                "method get"
+        );
+        matchVar("first", "hello world");
+        matchVar("response", "hello world");
+        HttpConnectionPools pools = runtime.featureRuntime.suite.httpConnectionPools;
+        assertEquals(1, pools.size());
+        // the second request re-used the kept-alive connection of the first
+        PoolStats stats = pools.getStats(runtime.engine.getConfig());
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getAvailable());
+        // reads time out as configured, not with the connect timeout
+        PoolingHttpClientConnectionManager manager = pools.getManager(runtime.engine.getConfig(), null);
+        assertEquals(12345, manager.getDefaultSocketConfig().getSoTimeout());
+    }
+
+    @Test
+    void testSpilledResponseFilesAreDeleted() {
+        background().scenario(
+                "pathMatches('/binary')",
+                "def Utils = Java.type('com.intuit.karate.core.MockUtils')",
+                "def responseHeaders = { 'Content-Type': 'application/octet-stream' }",
+                "def response = Utils.testBytes");
+        startMockServer();
+        run(
+                "configure responseSpillThreshold = 5",
+                urlStep(),
+                "path 'binary'",
+                "method get",
+                "def first = response",
+                "def firstExisted = first.exists()",
+                "path 'binary'",
+                "method get",
+                "def firstExists = first.exists()",
+                "def second = response"
+        );
+        assertFalse(runtime.isFailed(), runtime.result.getFailureMessageForDisplay());
+        matchVar("firstExisted", true);
+        // still referred to after the next response
+        matchVar("firstExists", true);
+        // both are deleted when the scenario ends
+        assertFalse(((File) get("first")).exists());
+        assertFalse(((File) get("second")).exists());
+    }
 
 }
@@ -2,11 +2,19 @@ package com.intuit.karate.core;
 
 import static com.intuit.karate.TestUtils.*;
 
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 import com.intuit.karate.TestUtils.FeatureBuilder;
 import com.intuit.karate.http.HttpClient;
 import com.intuit.karate.http.HttpRequestBuilder;
 import com.intuit.karate.http.Response;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -377,10 +385,109 @@ class MockHandlerTest {
         match(response.getHeader("Access-Control-Allow-Headers"), "Content-Type");
     } 
 
+    @Test
+    void testIndexedRoutesKeepDeclarationOrder() {
+        background().scenario(
+                "pathMatches('/cats/{id}') && methodIs('get')",
+                "def response = 'indexed ' + pathParams.id"
+        ).scenario(
+                "pathMatches('/cats/special')",
+                "def response = 'special'"
+        ).scenario(
+                "paramExists('foo')",
+                "def response = 'fallback'"
+        ).scenario(
+                "methodIs('delete')",
+                "def response = 'deleted'"
+        ).scenario(
+                "",
+                "def response = 'default'"
+        );
+        request.url("/cats/1");
+        handle();
+        match(response.getBodyAsString(), "indexed 1");
+        request.url("/cats/special").method("POST");
+        handle();
+        match(response.getBodyAsString(), "special");
+        request.url("/dogs").param("foo", "bar").method("DELETE");
+        handle();
+        match(response.getBodyAsString(), "fallback");
+        request.url("/dogs").method("DELETE");
+        handle();
+        match(response.getBodyAsString(), "deleted");
+        request.url("/dogs");
+        handle();
+        match(response.getBodyAsString(), "default");
+        request.url(MockHandler.ROUTES_PATH);
+        handle();
+        match(response.getBodyConverted(), "[{ feature: '#string', routes: [ "
+                + "{ line: '#number', expression: '#string', indexed: true, method: 'GET', path: '/cats/{id}' }, "
+                + "{ line: '#number', expression: '#string', indexed: true, method: '*', path: '/cats/special' }, "
+                + "{ line: '#number', expression: \"paramExists('foo')\", indexed: false }, "
+                + "{ line: '#number', expression: '#string', indexed: true, method: 'DELETE', path: '*' }, "
+                + "{ line: '#number', expression: null, indexed: true, method: '*', path: '*' } ] }]");
+    }
+
+    @Test
+    void testConcurrentRequestsAndLockedGlobals() throws Exception {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        handler = new MockHandler(Feature.read("classpath:com/intuit/karate/core/mock-concurrency.feature"),
+                Collections.singletonMap("barrier", barrier));
+        assertTrue(handler.isConcurrent());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Response>> futures = new ArrayList();
+            for (int i = 0; i < 2; i++) {
+                futures.add(executor.submit(() -> handler.handle(new HttpRequestBuilder(client).url("/").path("/barrier").build().toRequest())));
+            }
+            for (Future<Response> future : futures) {
+                match(future.get().getBodyAsString(), "ok");
+            }
+            futures.clear();
+            for (int i = 0; i < 20; i++) {
+                futures.add(executor.submit(() -> handler.handle(new HttpRequestBuilder(client).url("/").path("/count").build().toRequest())));
+            }
+            for (Future<Response> future : futures) {
+                assertEquals(200, future.get().getStatus());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(20, handler.getVariable("counter"));
+    }
+
+    @Test
+    void testConcurrentRequestsGetSnapshotOfGlobals() {
+        handler = new MockHandler(Feature.read("classpath:com/intuit/karate/core/mock-concurrency.feature"),
+                Collections.singletonMap("barrier", new CyclicBarrier(1)));
+        handler.handle(new HttpRequestBuilder(client).url("/").path("/cats").method("POST").bodyJson("{ name: 'billie' }").build().toRequest());
+        handler.handle(new HttpRequestBuilder(client).url("/").path("/cats").method("POST").bodyJson("{ name: 'bob' }").build().toRequest());
+        response = handler.handle(new HttpRequestBuilder(client).url("/").path("/cats/scratch").method("GET").build().toRequest());
+        match(response.getBodyConverted(), "{ billie: { name: 'billie' }, bob: { name: 'bob' }, scratch: { name: 'scratch' } }");
+        // shared maps and lists can only be changed in place by a @lock scenario
+        response = handler.handle(new HttpRequestBuilder(client).url("/").path("/cats/unsafe").method("GET").build().toRequest());
+        assertEquals(500, response.getStatus());
+        assertTrue(response.getBodyAsString().contains("@lock"));
+        response = handler.handle(new HttpRequestBuilder(client).url("/").path("/cats").method("GET").build().toRequest());
+        match(response.getBodyConverted(), "{ billie: { name: 'billie' }, bob: { name: 'bob' } }");
+    }
+
+    @Test
+    void testConcurrentRequestDataIsNotShared() {
+        handler = new MockHandler(Feature.read("classpath:com/intuit/karate/core/mock-concurrency.feature"),
+                Collections.singletonMap("barrier", new CyclicBarrier(1)));
+        response = handler.handle(new HttpRequestBuilder(client).url("/").path("/request").method("POST").bodyJson("{ foo: 'bar' }").build().toRequest());
+        match(response.getBodyConverted(), "{ path: '/request', foo: 'bar' }");
+        assertNull(handler.getVariable("request"));
+        assertNull(handler.getVariable("requestPath"));
+        assertNull(handler.getVariable("requestHeaders"));
+        assertEquals(0, handler.getVariable("counter"));
+    }
+
     @Test
     void logCoverageResult() {
-        BranchDataStructure bds = new BranchDataStructure(25, "handler");
-        bds.logResults();
+        BranchCoverage coverage = BranchCoverage.register("handler", 25);
+        coverage.logResults();
     }
 
 }
@@ -0,0 +1,128 @@
+package com.intuit.karate.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class ParallelProcessorTest {
+
+    ExecutorService executor;
+    ExecutorService monitor;
+
+    @BeforeEach
+    void beforeEach() {
+        executor = Executors.newFixedThreadPool(2);
+        monitor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+        monitor.shutdownNow();
+    }
+
+    static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Test
+    void testPullOnDemand() throws Exception {
+        AtomicInteger pulled = new AtomicInteger();
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger maxOutstanding = new AtomicInteger();
+        Iterator<Integer> publisher = new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.get() < 50;
+            }
+
+            @Override
+            public Integer next() {
+                int outstanding = pulled.incrementAndGet() - done.get();
+                maxOutstanding.accumulateAndGet(outstanding, Math::max);
+                return pulled.get();
+            }
+        };
+        CountDownLatch latch = new CountDownLatch(1);
+        new ParallelProcessor<Integer>(executor, publisher, monitor, 4) {
+            @Override
+            public void process(Integer in) {
+                sleep(2);
+                done.incrementAndGet();
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        }.execute();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(50, done.get());
+        assertTrue(maxOutstanding.get() <= 4, "max outstanding: " + maxOutstanding.get());
+    }
+
+    @Test
+    void testSynchronousChain() throws Exception {
+        List<Integer> items = new ArrayList();
+        for (int i = 0; i < 20; i++) {
+            items.add(i);
+        }
+        List<Integer> order = Collections.synchronizedList(new ArrayList());
+        CountDownLatch latch = new CountDownLatch(1);
+        new ParallelProcessor<Integer>(executor, items.iterator(), monitor) {
+            @Override
+            public void process(Integer in) {
+                sleep(20 - in); // earlier items take longer
+                order.add(in);
+            }
+
+            @Override
+            public boolean shouldRunSynchronously(Integer in) {
+                return true;
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        }.execute();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(items, order);
+    }
+
+    @Test
+    void testEmpty() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        new ParallelProcessor<Integer>(executor, Collections.emptyIterator(), monitor, 4) {
+            @Override
+            public void process(Integer in) {
+                fail("no items");
+            }
+
+            @Override
+            public void onComplete() {
+                latch.countDown();
+            }
+        }.execute();
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+}
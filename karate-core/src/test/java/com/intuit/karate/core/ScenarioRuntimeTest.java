@@ -66,6 +66,27 @@ class ScenarioRuntimeTest {
         );
     }
 
+    @Test
+    void testStepBindingIsCached() {
+        run(
+                "def a = 1 + 2",
+                "karate.set('c', a)",
+                "match c == 3"
+        );
+        Step step = sr.scenario.getSteps().get(0);
+        StepRuntime.StepBinding binding = step.getBinding();
+        assertEquals("def", binding.match.method.getName());
+        assertEquals("eval", sr.scenario.getSteps().get(1).getBinding().match.method.getName());
+        Result result = StepRuntime.execute(step, sr.actions);
+        assertFalse(result.isFailed());
+        assertTrue(binding == step.getBinding());
+        // text changed, e.g. outline placeholders were replaced
+        step.setText("def b = 2");
+        StepRuntime.execute(step, sr.actions);
+        assertFalse(binding == step.getBinding());
+        assertEquals(2, get("b"));
+    }
+
     @Test
     void testDefAndMatchForArrays() {
         run(
@@ -0,0 +1,103 @@
+package com.intuit.karate.core;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class SingleFlightCacheTest {
+
+    ExecutorService executor;
+    SingleFlightCache<String> cache;
+
+    @BeforeEach
+    void beforeEach() {
+        executor = Executors.newFixedThreadPool(4);
+        cache = new SingleFlightCache();
+    }
+
+    @AfterEach
+    void afterEach() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testOneLoaderPerKey() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = executor.submit(() -> cache.get("foo", () -> {
+            count.incrementAndGet();
+            release.await();
+            return "bar";
+        }));
+        while (cache.size() == 0) {
+            Thread.sleep(10);
+        }
+        Future<String> second = executor.submit(() -> cache.get("foo", () -> {
+            count.incrementAndGet();
+            return "baz";
+        }));
+        // a different key does not wait for the slow one
+        assertEquals("other", executor.submit(() -> cache.get("other", () -> "other")).get(5, TimeUnit.SECONDS));
+        assertFalse(second.isDone());
+        release.countDown();
+        assertEquals("bar", first.get(5, TimeUnit.SECONDS));
+        assertEquals("bar", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, count.get());
+        assertEquals("bar", cache.get("foo", () -> "baz"));
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    @Test
+    void testFailureIsNotCached() throws Exception {
+        try {
+            cache.get("foo", () -> {
+                throw new RuntimeException("failed");
+            });
+            fail("expected exception");
+        } catch (RuntimeException e) {
+            assertEquals("failed", e.getMessage());
+        }
+        assertFalse(cache.isLoaded("foo"));
+        assertEquals("bar", cache.get("foo", () -> "bar"));
+        assertTrue(cache.isLoaded("foo"));
+    }
+
+    @Test
+    void testTtl() throws Exception {
+        assertEquals("bar", cache.get("foo", 50, () -> "bar"));
+        assertEquals("bar", cache.get("foo", 50, () -> "baz"));
+        Thread.sleep(100);
+        assertEquals("baz", cache.get("foo", 50, () -> "baz"));
+        // no ttl, never expires
+        assertEquals("baz", cache.get("foo", () -> "other"));
+    }
+
+    @Test
+    void testSharedMap() throws Exception {
+        Map<String, String> map = new HashMap();
+        SingleFlightCache<String> first = new SingleFlightCache(map);
+        assertEquals("bar", first.get("foo", () -> "bar"));
+        assertEquals("bar", map.get("foo"));
+        // a second cache over the same map does not call its loader
+        SingleFlightCache<String> second = new SingleFlightCache(map);
+        assertEquals("bar", second.get("foo", () -> "baz"));
+        second.remove("foo");
+        assertFalse(map.containsKey("foo"));
+        assertEquals("baz", second.get("foo", () -> "baz"));
+    }
+
+}
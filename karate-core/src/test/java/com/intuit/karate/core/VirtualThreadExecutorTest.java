@@ -0,0 +1,48 @@
+package com.intuit.karate.core;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class VirtualThreadExecutorTest {
+
+    @Test
+    void testConcurrencyLimit() throws Exception {
+        assumeTrue(VirtualThreadExecutor.isSupported(), "needs java 21 or later");
+        VirtualThreadExecutor executor = new VirtualThreadExecutor(4);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger max = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            executor.submit(() -> {
+                max.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                running.decrementAndGet();
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(30, TimeUnit.SECONDS));
+        assertTrue(max.get() <= 4);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testNotSupported() {
+        assumeFalse(VirtualThreadExecutor.isSupported());
+        assertNull(VirtualThreadExecutor.factory());
+        assertThrows(RuntimeException.class, () -> new VirtualThreadExecutor(4));
+    }
+
+}
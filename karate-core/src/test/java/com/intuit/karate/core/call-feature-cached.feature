@@ -0,0 +1,12 @@
+Feature:
+
+Scenario Outline:
+* def called = read('call-feature-called.feature')
+* def result = call called { foo: '<foo>' }
+* match result.res == '<foo>'
+
+Examples:
+| foo    |
+| first  |
+| second |
+| third  |
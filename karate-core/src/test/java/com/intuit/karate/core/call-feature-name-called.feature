@@ -0,0 +1,4 @@
+Feature:
+
+Scenario: called with ${foo}
+* def name = karate.info.scenarioName
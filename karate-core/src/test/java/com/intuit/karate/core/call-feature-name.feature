@@ -0,0 +1,7 @@
+Feature:
+
+Scenario:
+* def first = call read('call-feature-name-called.feature') { foo: 'first' }
+* match first.name == 'called with first'
+* def second = call read('call-feature-name-called.feature') { foo: 'second' }
+* match second.name == 'called with second'
@@ -0,0 +1,57 @@
+package com.intuit.karate.core.configcache;
+
+import com.intuit.karate.Results;
+import com.intuit.karate.Runner;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+public class ConfigCacheTest {
+
+    public static final AtomicInteger COUNTER = new AtomicInteger();
+
+    @BeforeEach
+    void beforeEach() {
+        COUNTER.set(0);
+    }
+
+    private Results run(String mode, int threads) {
+        return Runner.path("classpath:com/intuit/karate/core/configcache/config-cache.feature")
+                .configDir("classpath:com/intuit/karate/core/configcache")
+                .systemProperty("config.cache", mode)
+                .outputHtmlReport(false)
+                .parallel(threads);
+    }
+
+    @Test
+    void testConfigCacheOff() {
+        Results results = run("", 1);
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+        assertEquals(6, COUNTER.get());
+    }
+
+    @Test
+    void testConfigCacheSuite() {
+        Results results = run("suite", 3);
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+        // only threads that raced the first evaluation will evaluate
+        assertTrue(COUNTER.get() <= 3);
+        COUNTER.set(0);
+        results = run("suite", 1);
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+        assertEquals(1, COUNTER.get());
+    }
+
+    @Test
+    void testConfigCacheThread() {
+        Results results = run("thread", 2);
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+        assertTrue(COUNTER.get() <= 2);
+    }
+
+}
@@ -0,0 +1,17 @@
+Feature: config cache
+
+Scenario Outline: scenario <index>
+* match data == { name: 'foo', items: [1, 2] }
+* match greet('bar') == 'hello bar'
+# mutations must not leak into the snapshot
+* set data.name = 'changed'
+* karate.appendTo(data.items, 3)
+
+Examples:
+| index |
+| 1     |
+| 2     |
+| 3     |
+| 4     |
+| 5     |
+| 6     |
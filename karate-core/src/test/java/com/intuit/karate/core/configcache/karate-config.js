@@ -0,0 +1,10 @@
+function fn() {
+  var ConfigCacheTest = Java.type('com.intuit.karate.core.configcache.ConfigCacheTest');
+  ConfigCacheTest.COUNTER.incrementAndGet();
+  var mode = karate.properties['config.cache'];
+  if (mode) karate.configure('configCache', mode);
+  return {
+    data: { name: 'foo', items: [1, 2] },
+    greet: function(name) { return 'hello ' + name }
+  };
+}
@@ -0,0 +1,33 @@
+Feature: lazy js values
+
+Background:
+* configure lazyJsValues = true
+
+Scenario: js objects are converted on demand and copied on write
+* def fun = function(){ return { a: 1, b: { c: [1, 2, { d: 'x' }] } } }
+* def data = fun()
+* match data == { a: 1, b: { c: [1, 2, { d: 'x' }] } }
+* match data.b.c[2].d == 'x'
+* match data.b.c == '#[3]'
+* set data.b.c[2].d = 'y'
+* set data.e = 'new'
+* match data == { a: 1, b: { c: [1, 2, { d: 'y' }] }, e: 'new' }
+* copy clone = data
+* set clone.a = 2
+* match data.a == 1
+* def keys = karate.keysOf(data)
+* match keys == ['a', 'b', 'e']
+* json str = data
+* match str contains { e: 'new' }
+
+Scenario: js array operations
+* def list = karate.map([1, 2, 3], function(x){ return { v: x * 2 } })
+* match list == [{ v: 2 }, { v: 4 }, { v: 6 }]
+* match each list == { v: '#number' }
+* def total = 0
+* karate.forEach(list, function(x){ karate.set('total', karate.get('total') + x.v) })
+* match total == 12
+* def filtered = karate.filter(list, function(x){ return x.v > 2 })
+* match filtered == [{ v: 4 }, { v: 6 }]
+* remove list[0]
+* match list == [{ v: 4 }, { v: 6 }]
@@ -0,0 +1,38 @@
+Feature: concurrent mock
+
+Background:
+* configure mockConcurrency = true
+* def counter = 0
+* def cats = {}
+
+Scenario: pathMatches('/barrier')
+# only passes if the other request is being handled at the same time
+* def TimeUnit = Java.type('java.util.concurrent.TimeUnit')
+* eval barrier.await(5, TimeUnit.SECONDS)
+* def response = 'ok'
+
+@lock
+Scenario: pathMatches('/count')
+* def counter = counter + 1
+* def response = { counter: '#(counter)' }
+
+@lock
+Scenario: pathMatches('/cats') && methodIs('post')
+* cats[request.name] = request
+* def response = request
+
+Scenario: pathMatches('/cats/scratch')
+# without @lock the shared cats are read-only, so change a copy
+* copy scratch = cats
+* scratch.scratch = { name: 'scratch' }
+* def response = scratch
+
+Scenario: pathMatches('/cats/unsafe')
+* cats.unsafe = { name: 'unsafe' }
+* def response = cats
+
+Scenario: pathMatches('/request')
+* def response = { path: '#(requestPath)', foo: '#(request.foo)' }
+
+Scenario: pathMatches('/cats')
+* def response = cats
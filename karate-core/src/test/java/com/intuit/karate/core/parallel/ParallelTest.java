@@ -36,4 +36,15 @@ class ParallelTest {
         assertEquals(0, results.getFailCount(), results.getErrorMessages());
     }
 
+    @Test
+    void testParallelVirtualThreads() {
+        // falls back to platform threads before java 21
+        Results results = Runner.path("classpath:com/intuit/karate/core/parallel/parallel.feature")
+                .configDir("classpath:com/intuit/karate/core/parallel")
+                .systemProperty("server.port", server.getPort() + "")
+                .virtualThreads(true)
+                .parallel(3);
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+    }
+
 }
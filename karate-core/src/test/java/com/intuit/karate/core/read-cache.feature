@@ -0,0 +1,25 @@
+Feature:
+
+Background:
+* configure readCache = true
+
+Scenario Outline:
+* def foo = '<foo>'
+* def bar = 'bar'
+* def first = read('read-expressions.json')
+* match first[0].item.foo == '<foo>'
+* match first[0].item.nested.bar == 'bar'
+* set first[0].item.foo = 'changed'
+* def second = read('read-expressions.json')
+* match second[0].item.foo == '<foo>'
+* def rows = read('outline-csv.csv')
+* match rows[0] == { test: "'thh'", birthDate: "'2002-04-16'" }
+* set rows[0].test = 'changed'
+* def again = read('outline-csv.csv')
+* match again == '#[3]'
+* match again[0].test == "'thh'"
+
+Examples:
+| foo    |
+| first  |
+| second |
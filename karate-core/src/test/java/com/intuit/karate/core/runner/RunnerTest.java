@@ -65,6 +65,23 @@ class RunnerTest {
         assertEquals(2, results.getFailCount());
     }
 
+    @Test
+    void testResultsDoNotNeedKarateJson() {
+        Results results = Runner.path(
+                "classpath:com/intuit/karate/core/runner/multi-scenario-fail.feature",
+                "classpath:com/intuit/karate/core/runner/outline.feature"
+        ).reportDir("target/runner-summaries").outputHtmlReport(false).parallel(1);
+        assertEquals(1, results.getFailCount());
+        int scenarios = results.getScenariosTotal();
+        assertEquals(scenarios, results.getScenarioResults().count());
+        // the totals are built from the in-memory summaries, not the files
+        results.getSuite().featureResultFiles.forEach(File::delete);
+        Results rebuilt = results.getSuite().buildResults();
+        assertEquals(scenarios, rebuilt.getScenariosTotal());
+        assertEquals(1, rebuilt.getFailCount());
+        assertEquals(results.getErrorMessages(), rebuilt.getErrorMessages());
+    }
+
     @Test
     void testRunningFeatureFromJavaApi() {
         Map<String, Object> result = Runner.runFeature(getClass(), "scenario.feature", null, true);
@@ -0,0 +1,203 @@
+package com.intuit.karate.core.schedule;
+
+import com.intuit.karate.FileUtils;
+import com.intuit.karate.Json;
+import com.intuit.karate.JsonUtils;
+import com.intuit.karate.Results;
+import com.intuit.karate.Runner;
+import com.intuit.karate.core.Feature;
+import com.intuit.karate.core.LongestFirstExecutor;
+import com.intuit.karate.core.ParallelProcessor;
+import com.intuit.karate.core.Scenario;
+import com.intuit.karate.core.ScenarioResult;
+import com.intuit.karate.core.ScenarioTimings;
+import com.intuit.karate.core.SyncExecutorService;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class ScheduleTest {
+
+    static final String REPORT_DIR = "target/schedule-test";
+
+    private static void clean() {
+        File dir = new File(REPORT_DIR);
+        if (dir.exists()) {
+            FileUtils.deleteDirectory(dir);
+        }
+    }
+
+    private static Results run() {
+        return Runner.path("classpath:com/intuit/karate/core/schedule")
+                .reportDir(REPORT_DIR)
+                .backupReportDir(false)
+                .outputHtmlReport(false)
+                .scheduleByDuration(true)
+                .parallel(2);
+    }
+
+    @Test
+    void testLongestFirstExecutor() throws Exception {
+        LongestFirstExecutor executor = new LongestFirstExecutor(1);
+        List<String> order = new CopyOnWriteArrayList();
+        executor.submit(LongestFirstExecutor.weighted(1, () -> order.add("a")));
+        executor.submit(LongestFirstExecutor.weighted(5, () -> order.add("b")));
+        executor.submit(() -> order.add("c"));
+        executor.submit(LongestFirstExecutor.weighted(5, () -> order.add("d")));
+        executor.submit(LongestFirstExecutor.weighted(3, () -> order.add("e")));
+        assertTrue(order.isEmpty());
+        executor.start();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("b", "d", "e", "a", "c"), order);
+    }
+
+    @Test
+    void testPredictMakespan() {
+        clean();
+        Results results = run();
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+        File file = new File(REPORT_DIR + File.separator + ScenarioTimings.FILE_NAME);
+        assertTrue(file.exists());
+        Feature schedule = Feature.read("classpath:com/intuit/karate/core/schedule/schedule.feature");
+        Feature sequential = Feature.read("classpath:com/intuit/karate/core/schedule/sequential.feature");
+        assertTrue(ScenarioTimings.isSequential(sequential));
+        assertFalse(ScenarioTimings.isSequential(schedule));
+        ScenarioTimings timings = ScenarioTimings.load(REPORT_DIR);
+        assertTrue(timings.predict(schedule.getScenario(3, -1)) >= 400);
+        // measured durations include warm-up, so use fixed ones for the schedule itself
+        timings = fixedTimings(schedule, sequential);
+        assertEquals(400, timings.predict(schedule.getScenario(3, -1)), 0.1);
+        assertEquals(100, timings.predict(sequential), 0.1);
+        // the long scenario on one thread, and everything else on the other
+        assertEquals(400, timings.predictMakespan(Arrays.asList(schedule, sequential), 2), 0.1);
+        assertEquals(650, timings.predictMakespan(Arrays.asList(schedule, sequential), 1), 0.1);
+        // the sequential feature is one task, so a third thread does not help
+        assertEquals(400, timings.predictMakespan(Arrays.asList(schedule, sequential), 3), 0.1);
+    }
+
+    private static ScenarioTimings fixedTimings(Feature schedule, Feature sequential) {
+        Map<String, Object> map = new HashMap();
+        map.put(schedule.getPackageQualifiedName(), durations(schedule, 50, 50, 50, 400));
+        map.put(sequential.getPackageQualifiedName(), durations(sequential, 50, 50));
+        FileUtils.writeToFile(new File(REPORT_DIR + File.separator + ScenarioTimings.FILE_NAME), JsonUtils.toJson(map));
+        return ScenarioTimings.load(REPORT_DIR);
+    }
+
+    private static Map<String, Object> durations(Feature feature, int... millis) {
+        Map<String, Object> map = new HashMap();
+        for (int i = 0; i < millis.length; i++) {
+            map.put(feature.getScenario(i, -1).getRefId(), millis[i]);
+        }
+        return map;
+    }
+
+    @Test
+    void testScenariosRunLongestFirst() throws Exception {
+        clean();
+        Feature schedule = Feature.read("classpath:com/intuit/karate/core/schedule/schedule.feature");
+        Feature sequential = Feature.read("classpath:com/intuit/karate/core/schedule/sequential.feature");
+        ScenarioTimings timings = fixedTimings(schedule, sequential);
+        // one thread, so the order depends only on the weights
+        LongestFirstExecutor executor = new LongestFirstExecutor(1);
+        List<String> order = new CopyOnWriteArrayList();
+        CountDownLatch done = new CountDownLatch(6);
+        for (Feature feature : Arrays.asList(schedule, sequential)) {
+            boolean sync = ScenarioTimings.isSequential(feature);
+            List<Scenario> scenarios = new ArrayList();
+            for (int i = 0; i < feature.getSections().size(); i++) {
+                scenarios.add(feature.getScenario(i, -1));
+            }
+            // same weights as FeatureRuntime uses
+            new ParallelProcessor<Scenario>(executor, scenarios.iterator(), SyncExecutorService.INSTANCE) {
+                @Override
+                public void process(Scenario scenario) {
+                    order.add(scenario.getName());
+                    done.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+
+                }
+
+                @Override
+                public boolean shouldRunSynchronously(Scenario scenario) {
+                    return sync;
+                }
+
+                @Override
+                public double getWeight(Scenario scenario) {
+                    return sync ? timings.predict(feature) : timings.predict(scenario);
+                }
+            }.execute();
+        }
+        assertTrue(order.isEmpty());
+        executor.start();
+        try {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        // in file order, long would be last, and the sequential feature stays in order
+        assertEquals(Arrays.asList("long", "first", "second", "short 1", "short 2", "short 3"), order);
+    }
+
+    @Test
+    void testShards() {
+        clean();
+        Results all = Runner.path("classpath:com/intuit/karate/core/schedule")
+                .reportDir(REPORT_DIR).backupReportDir(false).outputHtmlReport(false)
+                .parallel(1);
+        assertEquals(2, all.getFeaturesPassed());
+        int scenarios = 0;
+        for (int i = 1; i <= 2; i++) {
+            Results results = Runner.path("classpath:com/intuit/karate/core/schedule")
+                    .reportDir(REPORT_DIR).backupReportDir(false).outputHtmlReport(false)
+                    .shard(i, 2)
+                    .parallel(1);
+            assertEquals(0, results.getFailCount(), results.getErrorMessages());
+            // no history, so split by number of scenarios
+            assertEquals(1, results.getFeaturesPassed());
+            scenarios += results.getScenariosPassed();
+        }
+        assertEquals(all.getScenariosPassed(), scenarios);
+        assertThrows(RuntimeException.class, () -> Runner.builder().shard(3, 2));
+    }
+
+    @Test
+    void testLongestScenarioStartsFirst() {
+        clean();
+        assertEquals(0, run().getFailCount());
+        // the second run uses the timings of the first
+        Results results = run();
+        assertEquals(0, results.getFailCount(), results.getErrorMessages());
+        List<ScenarioResult> list = results.getScenarioResults().collect(Collectors.toList());
+        // two threads start at about the same time, the exact order is checked in testScenariosRunLongestFirst
+        List<String> started = list.stream().sorted(Comparator.comparingLong(ScenarioResult::getStartTime))
+                .map(sr -> sr.getScenario().getName()).collect(Collectors.toList());
+        assertTrue(started.indexOf("long") < 2, started.toString());
+        ScenarioResult first = list.stream().filter(sr -> sr.getScenario().getName().equals("first")).findFirst().get();
+        ScenarioResult second = list.stream().filter(sr -> sr.getScenario().getName().equals("second")).findFirst().get();
+        assertTrue(first.getEndTime() <= second.getStartTime());
+        String json = FileUtils.toString(new File(REPORT_DIR + File.separator + "karate-summary-json.txt"));
+        Map<String, Object> summary = Json.of(json).asMap();
+        assertTrue(((Number) summary.get("predictedMakespan")).doubleValue() >= 400);
+        assertTrue(((Number) summary.get("actualMakespan")).doubleValue() >= 400);
+    }
+
+}
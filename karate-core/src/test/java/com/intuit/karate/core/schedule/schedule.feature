@@ -0,0 +1,13 @@
+Feature: scenarios of different durations, longest last
+
+Scenario: short 1
+* java.lang.Thread.sleep(50)
+
+Scenario: short 2
+* java.lang.Thread.sleep(50)
+
+Scenario: short 3
+* java.lang.Thread.sleep(50)
+
+Scenario: long
+* java.lang.Thread.sleep(400)
@@ -0,0 +1,8 @@
+@parallel=false
+Feature: scenarios that have to run one after the other
+
+Scenario: first
+* java.lang.Thread.sleep(50)
+
+Scenario: second
+* java.lang.Thread.sleep(50)
@@ -0,0 +1,170 @@
+package com.intuit.karate.driver;
+
+import com.intuit.karate.TestUtils;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class DevToolsWaitTest {
+
+    static class StubDriver extends DevToolsDriver {
+
+        final List<DevToolsMessage> sent = new CopyOnWriteArrayList();
+        Consumer<DevToolsMessage> onSend;
+
+        StubDriver(DriverOptions options) {
+            super(options, "root");
+        }
+
+        @Override
+        public void send(DevToolsMessage dtm) {
+            sent.add(dtm);
+            if (onSend != null) {
+                onSend.accept(dtm);
+            }
+        }
+
+    }
+
+    StubDriver driver;
+    DevToolsWait wait;
+
+    @BeforeEach
+    void beforeEach() {
+        Map<String, Object> map = new HashMap();
+        map.put("timeout", 2000);
+        DriverOptions options = new DriverOptions(map, TestUtils.runtime(), 0, null);
+        driver = new StubDriver(options);
+        wait = new DevToolsWait(driver, options);
+    }
+
+    DevToolsMessage message(Map<String, Object> map) {
+        return new DevToolsMessage(driver, map);
+    }
+
+    DevToolsMessage reply(int id, Object value) {
+        Map<String, Object> inner = new HashMap();
+        inner.put("type", "string");
+        inner.put("value", value);
+        Map<String, Object> map = new HashMap();
+        map.put("id", id);
+        map.put("result", Collections.singletonMap("result", inner));
+        return message(map);
+    }
+
+    DevToolsMessage errorReply(int id) {
+        Map<String, Object> error = new HashMap();
+        error.put("code", -1);
+        error.put("message", "failed");
+        Map<String, Object> map = new HashMap();
+        map.put("id", id);
+        map.put("error", error);
+        return message(map);
+    }
+
+    DevToolsMessage event(String method) {
+        Map<String, Object> map = new HashMap();
+        map.put("method", method);
+        map.put("params", Collections.singletonMap("message", "hello"));
+        return message(map);
+    }
+
+    @Test
+    void testOutOfOrderReplies() throws Exception {
+        List<DevToolsMessage> messages = new ArrayList();
+        List<CompletableFuture<DevToolsMessage>> futures = new ArrayList();
+        for (int i = 0; i < 3; i++) {
+            DevToolsMessage dtm = driver.method("Runtime.evaluate");
+            messages.add(dtm);
+            futures.add(wait.sendAsync(dtm, null));
+        }
+        assertEquals(3, driver.sent.size());
+        assertEquals(3, wait.getPendingCount());
+        for (int i = 2; i >= 0; i--) {
+            wait.receive(reply(messages.get(i).getId(), "v" + i));
+        }
+        for (int i = 0; i < 3; i++) {
+            DevToolsMessage result = wait.await(messages.get(i), futures.get(i));
+            assertEquals(messages.get(i).getId(), result.getId());
+            assertEquals("v" + i, result.getResult().getValue());
+        }
+        assertEquals(0, wait.getPendingCount());
+    }
+
+    @Test
+    void testEventWaiterIgnoresIdReply() throws Exception {
+        DevToolsMessage navigate = driver.method("Page.navigate");
+        CompletableFuture<DevToolsMessage> loaded = wait.sendAsync(navigate, DevToolsWait.FRAME_RESIZED);
+        DevToolsMessage evaluate = driver.method("Runtime.evaluate");
+        CompletableFuture<DevToolsMessage> evaluated = wait.sendAsync(evaluate, null);
+        // the reply to the command is not the event being waited for
+        wait.receive(reply(navigate.getId(), "ignored"));
+        assertFalse(loaded.isDone());
+        // and an event does not complete a command waiting for its reply
+        wait.receive(event("Page.frameResized"));
+        assertTrue(loaded.isDone());
+        assertEquals("Page.frameResized", loaded.get().getMethod());
+        assertFalse(evaluated.isDone());
+        wait.receive(reply(evaluate.getId(), "done"));
+        assertEquals("done", evaluated.get().getResult().getValue());
+        assertEquals(0, wait.getPendingCount());
+    }
+
+    @Test
+    void testTimeoutRemovesPending() {
+        DevToolsMessage dtm = driver.method("Runtime.evaluate");
+        dtm.setTimeout(50);
+        assertNull(wait.send(dtm, null));
+        assertEquals(0, wait.getPendingCount());
+        // a late reply is ignored
+        wait.receive(reply(dtm.getId(), "late"));
+        DevToolsMessage event = driver.method("Page.navigate");
+        event.setTimeout(50);
+        assertNull(wait.send(event, DevToolsWait.FRAME_RESIZED));
+        assertEquals(0, wait.getPendingCount());
+    }
+
+    @Test
+    void testDialogCompletesEverythingWaiting() throws Exception {
+        CompletableFuture<DevToolsMessage> first = driver.sendAsync(driver.method("Runtime.evaluate"));
+        CompletableFuture<DevToolsMessage> second = driver.sendAsync(driver.method("Page.navigate"));
+        driver.receive(event("Page.javascriptDialogOpening"));
+        assertEquals("Page.javascriptDialogOpening", first.get().getMethod());
+        assertEquals("Page.javascriptDialogOpening", second.get().getMethod());
+        assertEquals("hello", driver.getDialogText());
+    }
+
+    @Test
+    void testScriptsFallBackOneAtATimeOnError() {
+        List<String> expressions = new CopyOnWriteArrayList();
+        driver.onSend = dtm -> {
+            String expression = dtm.getParam("expression");
+            expressions.add(expression);
+            // the batched evaluation of the second locator fails, the one-off retry succeeds
+            if (expression.contains("#b") && expressions.size() <= 3) {
+                driver.receive(errorReply(dtm.getId()));
+            } else {
+                driver.receive(reply(dtm.getId(), expression.contains("#a") ? "a" : expression.contains("#b") ? "b" : "c"));
+            }
+        };
+        List values = driver.scripts(Arrays.asList("#a", "#b", "#c"), "_.value");
+        assertEquals(Arrays.asList("a", "b", "c"), values);
+        // three batched, then one more for the failed one
+        assertEquals(4, expressions.size());
+        assertTrue(expressions.get(3).contains("#b"));
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.intuit.karate.graal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class JsEnginePoolTest {
+
+    @Test
+    void testReuseAndReset() {
+        JsEnginePool pool = new JsEnginePool(2);
+        JsEngine je = pool.acquire();
+        je.put("request", "foo");
+        je.eval("globalThis.bar = 1");
+        je.eval("var baz = 1; function fun(){}");
+        pool.release(je);
+        JsEngine je2 = pool.acquire();
+        assertSame(je, je2);
+        assertFalse(je2.bindings.hasMember("request"));
+        assertFalse(je2.bindings.hasMember("bar"));
+        assertTrue(je2.eval("baz === undefined && fun === undefined").isTrue());
+        je2.eval("var baz = 2"); // re-declaration is fine
+        pool.release(je2);
+        assertEquals(1L, pool.getStats().get("created"));
+        assertEquals(0L, pool.getStats().get("discarded"));
+    }
+
+    @Test
+    void testDirtyEngineIsDiscarded() {
+        JsEnginePool pool = new JsEnginePool(1);
+        JsEngine je = pool.acquire();
+        je.eval("let foo = 1");
+        pool.release(je);
+        assertEquals(0, pool.getIdleCount());
+        JsEngine je2 = pool.acquire();
+        assertNotSame(je, je2);
+        je2.eval("let foo = 2"); // would fail if the old context was re-used
+        pool.release(je2);
+        assertEquals(2L, pool.getStats().get("discarded"));
+    }
+
+    @Test
+    void testWaitWhenExhausted() throws Exception {
+        JsEnginePool pool = new JsEnginePool(1);
+        JsEngine je = pool.acquire();
+        JsEngine[] other = new JsEngine[1];
+        Thread thread = new Thread(() -> other[0] = pool.acquire());
+        thread.start();
+        Thread.sleep(200);
+        pool.release(je);
+        thread.join();
+        assertSame(je, other[0]);
+        assertEquals(1, pool.getWaitCount());
+        assertTrue(pool.getWaitMillis() > 0);
+    }
+
+}
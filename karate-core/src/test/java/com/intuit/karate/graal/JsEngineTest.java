@@ -36,6 +36,23 @@ class JsEngineTest {
         JsEngine.remove();
     }
 
+    @Test
+    void testSourceCacheAndSharedEngine() throws Exception {
+        assertSame(JsEngine.toSource("1 + 2"), JsEngine.toSource("1 + 2"));
+        assertEquals(3, (int) je.eval("1 + 2").<Integer>getValue());
+        JsEngine[] other = new JsEngine[1];
+        Object[] result = new Object[1];
+        Thread thread = new Thread(() -> {
+            other[0] = JsEngine.global();
+            result[0] = other[0].eval("1 + 2").getValue();
+        });
+        thread.start();
+        thread.join();
+        assertEquals(3, result[0]);
+        assertNotSame(je.context, other[0].context);
+        assertSame(je.context.getEngine(), other[0].context.getEngine());
+    }
+
     @Test
     void testFunctionExecute() {
         JsValue v = je.eval("(function(){ return ['a', 'b', 'c'] })");
@@ -1,9 +1,15 @@
 package com.intuit.karate.graal;
 
 import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 import org.graalvm.polyglot.Value;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -64,9 +70,86 @@ public class JsValueTest {
         assertEquals(intArray, javaObject);
     }
 
+    @Test
+    void testToJavaLazyMap() {
+        JsEngine je = JsEngine.global();
+        Value v = je.evalForValue("({ a: 1, b: { c: [1, 2, { d: 'x' }] } })");
+        Map<String, Object> map = (Map) JsValue.toJava(v, true);
+        assertTrue(map instanceof JsLazyMap);
+        assertEquals(2, map.size());
+        assertTrue(map.containsKey("b"));
+        Map<String, Object> b = (Map) map.get("b");
+        assertTrue(JsValue.isLazy(b));
+        assertSame(b, map.get("b"));
+        List<Object> c = (List) b.get("c");
+        assertTrue(c instanceof JsLazyList);
+        assertEquals(3, c.size());
+        assertEquals("x", ((Map) c.get(2)).get("d"));
+        JsLazyMap lazy = (JsLazyMap) map;
+        assertFalse(lazy.isMaterialized());
+        map.put("e", 2);
+        assertTrue(lazy.isMaterialized());
+        assertSame(b, map.get("b"));
+        assertEquals(3, map.size());
+        assertFalse(v.hasMember("e"));
+    }
+
+    @Test
+    void testLazyMapKeySetRemove() {
+        JsEngine je = JsEngine.global();
+        Value v = je.evalForValue("({ a: 1, b: 2, c: 3 })");
+        JsLazyMap lazy = (JsLazyMap) JsValue.toJava(v, true);
+        Set<String> keys = lazy.keySet();
+        assertFalse(lazy.isMaterialized());
+        assertTrue(keys.remove("a"));
+        assertTrue(lazy.isMaterialized());
+        assertFalse(lazy.containsKey("a"));
+        assertFalse(keys.remove("a"));
+        // the same behavior when the map was materialized first
+        JsLazyMap other = (JsLazyMap) JsValue.toJava(v, true);
+        other.put("d", 4);
+        Iterator<String> it = other.keySet().iterator();
+        it.next();
+        it.remove();
+        assertEquals(Arrays.asList("b", "c", "d"), new ArrayList(other.keySet()));
+        // the js object is not changed
+        assertTrue(v.hasMember("a"));
+    }
+
+    @Test
+    void testToJavaLazyList() {
+        JsEngine je = JsEngine.global();
+        Value v = je.evalForValue("[1, 'two', { three: 3 }]");
+        List<Object> list = (List) JsValue.toJava(v, true);
+        assertEquals(1, list.get(0));
+        assertSame(list.get(2), list.get(2));
+        JsLazyList lazy = (JsLazyList) list;
+        list.set(0, 5);
+        assertTrue(lazy.isMaterialized());
+        assertEquals(5, list.get(0));
+        assertEquals(1, v.getArrayElement(0).asInt());
+        list.add(4);
+        assertEquals(4, list.size());
+    }
+
+    @Test
+    void testDetach() {
+        JsEngine je = JsEngine.global();
+        Map<String, Object> plain = Collections.singletonMap("a", 1);
+        assertSame(plain, JsValue.detach(plain));
+        Object lazy = JsValue.toJava(je.evalForValue("({ a: { b: [1, 2] } })"), true);
+        Map<String, Object> wrapped = Collections.singletonMap("x", lazy);
+        Map<String, Object> detached = (Map) JsValue.detach(wrapped);
+        assertNotSame(wrapped, detached);
+        Map<String, Object> x = (Map) detached.get("x");
+        assertFalse(JsValue.isLazy(x));
+        assertFalse(JsValue.isLazy(((Map) x.get("a")).get("b")));
+        assertEquals(2, ((List) ((Map) x.get("a")).get("b")).get(1));
+    }
+
     @Test
     void logCoverageResult() {
-        BranchDataStructure bds = new BranchDataStructure(27, "jsvalue");
-        bds.logResults();
+        BranchCoverage coverage = BranchCoverage.register("jsvalue", 27);
+        coverage.logResults();
     }
 }
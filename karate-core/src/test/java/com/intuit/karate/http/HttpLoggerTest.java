@@ -1,6 +1,5 @@
 package com.intuit.karate.http;
 
-import com.intuit.karate.BranchDataStructure;
 import com.intuit.karate.LogAppender;
 import com.intuit.karate.Logger;
 import com.intuit.karate.core.Config;
@@ -33,7 +32,6 @@ class HttpLoggerTest {
     Config config;
     LogAppender logAppender = new StringLogAppender(false);
     HttpLogger httpLogger;
-    BranchDataStructure dataStructure;
 
     private static final String TURTLE_SAMPLE = "<http://example.org/hello> <http://example.org/#linked> <http://example.org/world> .";
 
@@ -1,6 +1,8 @@
 package com.intuit.karate.http;
 
 import com.intuit.karate.Match;
+import com.intuit.karate.graal.JsEngine;
+import com.intuit.karate.graal.JsEnginePool;
 import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +18,7 @@ class RequestHandlerTest {
 
     static final Logger logger = LoggerFactory.getLogger(RequestHandlerTest.class);
 
+    ServerConfig config;
     RequestHandler handler;
     HttpRequestBuilder request;
     Response response;
@@ -24,7 +27,7 @@ class RequestHandlerTest {
 
     @BeforeEach
     void beforeEach() {
-        ServerConfig config = new ServerConfig("classpath:demo");
+        config = new ServerConfig("classpath:demo");
         config.autoCreateSession(true);
         handler = new RequestHandler(config);
         request = new HttpRequestBuilder(null).url("/").method("GET");
@@ -71,4 +74,37 @@ class RequestHandlerTest {
         assertTrue(body.contains("<span>John</span>"));
     }
 
+    @Test
+    void testJsEnginePoolIsOptIn() {
+        assertNull(config.getJsEnginePool());
+    }
+
+    @Test
+    void testJsEngineIsReleasedIfRequestCycleFails() {
+        config.jsEnginePoolSize(1);
+        ServerContext context = new ServerContext(config, request.build().toRequest()) {
+            @Override
+            public Session getSession() {
+                throw new RuntimeException("failed");
+            }
+        };
+        assertThrows(RuntimeException.class, () -> RequestCycle.init(null, context));
+        JsEnginePool pool = config.getJsEnginePool();
+        assertEquals(1, pool.getIdleCount());
+        assertNotSame(pool.acquire(), JsEngine.global());
+    }
+
+    @Test
+    void testJsEnginePoolIsReused() {
+        config.jsEnginePoolSize(2);
+        for (int i = 0; i < 3; i++) {
+            request.path("index");
+            handle();
+            assertTrue(body.contains("<span>John Smith</span>"));
+        }
+        JsEnginePool pool = config.getJsEnginePool();
+        assertEquals(3L, pool.getStats().get("acquired"));
+        assertEquals(1, pool.getIdleCount());
+    }
+
 }
@@ -1,8 +1,7 @@
 package com.intuit.karate.http;
 
-import com.intuit.karate.BranchDataStructure;
+import com.intuit.karate.BranchCoverage;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -84,14 +83,8 @@ class RequestTest {
 
     @Test
     void logCoverageResult() {
-        BranchDataStructure bds = new BranchDataStructure(26, "getmember");
-        bds.logResults();
+        BranchCoverage coverage = BranchCoverage.register("getmember", 26);
+        coverage.logResults();
     }
 
-    @Test
-    @Disabled
-    void delete_file() {
-        BranchDataStructure bds = new BranchDataStructure(26, "getmember");
-        bds.delete_file();
-    }
 }
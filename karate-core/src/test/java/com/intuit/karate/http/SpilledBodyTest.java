@@ -0,0 +1,74 @@
+package com.intuit.karate.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class SpilledBodyTest {
+
+    static Object read(String text, int threshold) throws Exception {
+        return SpilledBody.read(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), threshold);
+    }
+
+    @Test
+    void testSmallBodyStaysInMemory() throws Exception {
+        Object body = read("hello", 5);
+        assertTrue(body instanceof byte[]);
+        assertEquals("hello", new String((byte[]) body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testLargeBodyIsSpilled() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append(i % 10);
+        }
+        String text = sb.toString();
+        SpilledBody body = (SpilledBody) read(text, 100);
+        assertEquals(5000, body.length);
+        assertTrue(body.file.exists());
+        assertEquals(text, new String(body.toBytes(), StandardCharsets.UTF_8));
+        try (InputStream is = body.openStream()) {
+            assertEquals('0', is.read());
+            assertEquals('1', is.read());
+        }
+        assertEquals("0123456789\n... [5000 bytes]", body.head(10));
+        assertEquals(text, body.head(10000));
+        body.delete();
+        assertFalse(body.file.exists());
+    }
+
+    @Test
+    void testConvert() throws Exception {
+        SpilledBody body = (SpilledBody) read("  { \"foo\": [1, 2, { \"bar\": \"baz\" }] }", 10);
+        Map<String, Object> map = (Map) body.convert(true, ResourceType.JSON);
+        List<Object> list = (List) map.get("foo");
+        assertEquals(3, list.size());
+        assertEquals("baz", ((Map) list.get(2)).get("bar"));
+        assertTrue(body.convert(true, ResourceType.BINARY) instanceof File);
+        body.delete();
+        body = (SpilledBody) read("{ not json at all", 5);
+        assertEquals("{ not json at all", body.convert(false, null));
+        body.delete();
+    }
+
+    @Test
+    void testHeadKeepsWholeCharacters() throws Exception {
+        // each of these is 3 bytes in utf-8
+        SpilledBody body = (SpilledBody) read("\u20ac\u20ac\u20ac\u20ac", 5);
+        assertEquals(12, body.length);
+        assertEquals("\u20ac\n... [12 bytes]", body.head(4));
+        assertEquals("\u20ac\u20ac\n... [12 bytes]", body.head(6));
+        body.delete();
+    }
+
+}
@@ -0,0 +1,77 @@
+package com.intuit.karate.report;
+
+import com.intuit.karate.core.Feature;
+import com.intuit.karate.core.FeatureResult;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author pthomas3
+ */
+class ReportPipelineTest {
+
+    @Test
+    void testAllWrittenBeforeClose() throws Exception {
+        Feature feature = Feature.read("classpath:com/intuit/karate/report/test.feature");
+        List<FeatureResult> written = new CopyOnWriteArrayList();
+        ReportPipeline pipeline = new ReportPipeline(2, 4, fr -> {
+            try {
+                Thread.sleep(5);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+            written.add(fr);
+        });
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 25; j++) {
+                    pipeline.submit(new FeatureResult(feature));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        pipeline.close();
+        assertEquals(100, written.size());
+        // after close, the caller writes
+        pipeline.submit(new FeatureResult(feature));
+        assertEquals(101, written.size());
+    }
+
+    @Test
+    void testSubmitBlocksWhenFull() throws Exception {
+        Feature feature = Feature.read("classpath:com/intuit/karate/report/test.feature");
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ReportPipeline pipeline = new ReportPipeline(1, 1, fr -> {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        pipeline.submit(new FeatureResult(feature)); // taken by the writer
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        pipeline.submit(new FeatureResult(feature)); // fills the queue
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            pipeline.submit(new FeatureResult(feature));
+            submitted.countDown();
+        });
+        thread.start();
+        assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        pipeline.close();
+    }
+
+}
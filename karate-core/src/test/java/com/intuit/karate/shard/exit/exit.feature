@@ -0,0 +1,4 @@
+Feature: a worker that exits without a result
+
+Scenario: exit
+* eval java.lang.System.exit(3)
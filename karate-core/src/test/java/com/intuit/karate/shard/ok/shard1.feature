@@ -0,0 +1,6 @@
+Feature: shard 1
+
+Scenario: callSingle is evaluated once across workers
+* configure callSingleCache = { minutes: 1, dir: 'target/shard-test/cache' }
+* def result = karate.callSingle('classpath:com/intuit/karate/shard/single.js')
+* match result == { value: 'single' }
@@ -0,0 +1,9 @@
+function fn() {
+  var Files = Java.type('java.nio.file.Files');
+  var Paths = Java.type('java.nio.file.Paths');
+  var StandardOpenOption = Java.type('java.nio.file.StandardOpenOption');
+  var path = Paths.get('target/shard-test/calls.txt');
+  Files.createDirectories(path.getParent());
+  Files.writeString(path, 'x', StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  return { value: 'single' };
+}
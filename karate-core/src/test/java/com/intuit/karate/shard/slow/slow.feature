@@ -0,0 +1,6 @@
+Feature: slow callSingle
+
+Scenario: callSingle is evaluated once across suites in the same jvm
+* configure callSingleCache = { minutes: 1, dir: 'target/shard-test/cache' }
+* def result = karate.callSingle('classpath:com/intuit/karate/shard/slow/slow.js')
+* match result == { value: 'slow' }
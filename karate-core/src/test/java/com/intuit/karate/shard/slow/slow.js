@@ -0,0 +1,10 @@
+function fn() {
+  java.lang.Thread.sleep(500);
+  var Files = Java.type('java.nio.file.Files');
+  var Paths = Java.type('java.nio.file.Paths');
+  var StandardOpenOption = Java.type('java.nio.file.StandardOpenOption');
+  var path = Paths.get('target/shard-test/calls.txt');
+  Files.createDirectories(path.getParent());
+  Files.writeString(path, 'x', StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+  return { value: 'slow' };
+}
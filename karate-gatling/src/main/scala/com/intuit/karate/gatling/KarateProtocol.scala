@@ -26,7 +26,7 @@ package com.intuit.karate.gatling
 import akka.actor.ActorSystem
 import com.intuit.karate.Runner
 import com.intuit.karate.http.{HttpRequest, HttpUtils}
-import com.intuit.karate.core.{ScenarioCall, ScenarioRuntime}
+import com.intuit.karate.core.{ScenarioCall, ScenarioRuntime, SingleFlightCache}
 import io.gatling.core.CoreComponents
 import io.gatling.core.config.GatlingConfiguration
 import io.gatling.core.protocol.{Protocol, ProtocolComponents, ProtocolKey}
@@ -47,8 +47,8 @@ class KarateProtocol(val uriPatterns: Map[String, Seq[MethodPause]]) extends Pro
   }
   var nameResolver: (HttpRequest, ScenarioRuntime) => String = (req, ctx) => null
   var runner = new Runner.Builder
-  val callSingleCache = new java.util.HashMap[String, AnyRef]
-  val callOnceCache = new java.util.HashMap[String, ScenarioCall.Result]
+  val callSingleCache = new SingleFlightCache[AnyRef]
+  val callOnceCache = new SingleFlightCache[ScenarioCall.Result]
 }
 
 object KarateProtocol {